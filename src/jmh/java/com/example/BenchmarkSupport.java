@@ -0,0 +1,22 @@
+package com.example;
+
+import java.lang.reflect.Field;
+
+// The benchmarks build the beans by hand, without an application context. Only VariantStorageBenchmark needs a database.
+public final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    // Sets a private @Inject or @Value field the way the bean context would
+    public static <T> T inject(T target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+            return target;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + fieldName + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.compression;
+
+import com.example.HeroSectionResponse;
+import com.example.SectionType;
+import com.example.templates.SectionTemplates;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.grpc.Codec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Size and cost of the response compressions on a typical section response: the template with a user's edits.
+// The dictionary is built from the bundled templates, so those bytes are its best case. A document a user edited
+// comes back from the jsonb column with its keys reordered, which is what most responses carry.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompressionBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Param({"identity", "gzip", ZstdDictionaryCodec.ENCODING})
+    private String encoding;
+
+    // template: the edited document as the client sent it, stored: as read back from the jsonb column
+    @Param({"template", "stored"})
+    private String document;
+
+    private Codec codec;
+    private byte[] message;
+
+    @Setup
+    public void setUp() {
+        codec = switch (encoding) {
+            case "identity" -> Codec.Identity.NONE;
+            case "gzip" -> new Codec.Gzip();
+            default -> new ZstdDictionaryCodec(3);
+        };
+        String split = SectionTemplates.readBundled(SectionType.HERO, "split").replace("#FFFFFF", "#0F172A");
+        String centered = SectionTemplates.readBundled(SectionType.HERO, "centered");
+        if ("stored".equals(document)) {
+            split = jsonbNormalized(split);
+            centered = jsonbNormalized(centered);
+        }
+        message = HeroSectionResponse.newBuilder()
+                .setSplit(split)
+                .setCentered(centered)
+                .setActive("Split")
+                .setVersion(7)
+                .build()
+                .toByteArray();
+    }
+
+    // The document the way the services return a stored variant: jsonb orders object keys by length and then
+    // bytewise, and SectionVariants writes it back without whitespace
+    private static String jsonbNormalized(String json) {
+        try {
+            return normalize(OBJECT_MAPPER.readTree(json)).toString();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JsonNode normalize(JsonNode node) {
+        if (node.isObject()) {
+            List<String> names = new ArrayList<>();
+            node.fieldNames().forEachRemaining(names::add);
+            names.sort(Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder()));
+            ObjectNode sorted = OBJECT_MAPPER.createObjectNode();
+            for (String name : names) {
+                sorted.set(name, normalize(node.get(name)));
+            }
+            return sorted;
+        }
+        if (node.isArray()) {
+            ArrayNode array = OBJECT_MAPPER.createArrayNode();
+            node.forEach(element -> array.add(normalize(element)));
+            return array;
+        }
+        return node;
+    }
+
+    // Reported next to the timings, the size on the wire per operation
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sizes {
+        public long uncompressedBytes;
+        public long compressedBytes;
+    }
+
+    @Benchmark
+    public byte[] compress(Sizes sizes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(message.length);
+        try (OutputStream compressed = codec.compress(out)) {
+            compressed.write(message);
+        }
+        sizes.uncompressedBytes += message.length;
+        sizes.compressedBytes += out.size();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.interceptors;
+
+import com.example.BenchmarkSupport;
+import com.example.LoginRequest;
+import com.example.security.TokenHandler;
+import com.example.security.TokenValidator;
+import com.example.security.VerifiedTokenCache;
+import io.grpc.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The interceptor in front of every call, for a call it authenticates and one it only passes through
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InterceptorBenchmark {
+
+    private static final ServerCallHandler<String, String> HANDLER = (call, headers) -> new ServerCall.Listener<>() {
+    };
+
+    private MessageServiceInterceptor interceptor;
+    private ServerCall<String, String> authenticatedCall;
+    private ServerCall<String, String> passThroughCall;
+    private Metadata headers;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TokenValidator tokenValidator = BenchmarkSupport.inject(new TokenValidator(), "meterRegistry", meterRegistry);
+        VerifiedTokenCache verifiedTokenCache = BenchmarkSupport.inject(
+                new VerifiedTokenCache(100_000, Duration.ofMinutes(15)), "tokenValidator", tokenValidator);
+        interceptor = BenchmarkSupport.inject(new MessageServiceInterceptor(), "verifiedTokenCache", verifiedTokenCache);
+        BenchmarkSupport.inject(interceptor, "protectedServices", List.of("HeroSectionService", "PageService"));
+
+        String token = BenchmarkSupport.inject(new TokenHandler(), "meterRegistry", meterRegistry).generateAccessToken(
+                LoginRequest.newBuilder().setUserName("benchmark-user").setPassword("secret").build(), 1L);
+        headers = new Metadata();
+        headers.put(Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER), "Bearer " + token);
+
+        authenticatedCall = new BenchmarkCall(method("HeroSectionService", "UpdateHeroSection"));
+        passThroughCall = new BenchmarkCall(method("com.example.UserLogin", "login"));
+    }
+
+    // A token seen before, as on every call of a session after the first
+    @Benchmark
+    public ServerCall.Listener<String> authenticatedCall() {
+        return interceptor.interceptCall(authenticatedCall, headers, HANDLER);
+    }
+
+    @Benchmark
+    public ServerCall.Listener<String> passThroughCall() {
+        return interceptor.interceptCall(passThroughCall, headers, HANDLER);
+    }
+
+    private static MethodDescriptor<String, String> method(String service, String name) {
+        MethodDescriptor.Marshaller<String> marshaller = new MethodDescriptor.Marshaller<>() {
+            @Override
+            public InputStream stream(String value) {
+                return new ByteArrayInputStream(value.getBytes());
+            }
+
+            @Override
+            public String parse(InputStream stream) {
+                return "";
+            }
+        };
+        return MethodDescriptor.<String, String>newBuilder()
+                .setType(MethodDescriptor.MethodType.UNARY)
+                .setFullMethodName(MethodDescriptor.generateFullMethodName(service, name))
+                .setRequestMarshaller(marshaller)
+                .setResponseMarshaller(marshaller)
+                .build();
+    }
+
+    private static final class BenchmarkCall extends ServerCall<String, String> {
+
+        private final MethodDescriptor<String, String> method;
+
+        private BenchmarkCall(MethodDescriptor<String, String> method) {
+            this.method = method;
+        }
+
+        @Override
+        public void request(int numMessages) {
+        }
+
+        @Override
+        public void sendHeaders(Metadata headers) {
+        }
+
+        @Override
+        public void sendMessage(String message) {
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public MethodDescriptor<String, String> getMethodDescriptor() {
+            return method;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.repository;
+
+import com.example.SectionType;
+import com.example.templates.SectionTemplates;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Size and read latency of the variants column stored as text and as jsonb, the two storages user sections went
+// through. Unlike the other benchmarks it needs a Postgres, by default the load test database; set BENCHMARK_JDBC_URL,
+// BENCHMARK_JDBC_USER and BENCHMARK_JDBC_PASSWORD to use another one. It creates and drops a scratch table of its own
+// and prints the table size, TOAST included, next to the results.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VariantStorageBenchmark {
+
+    @Param({"text", "jsonb"})
+    public String storage;
+
+    @Param({"10000"})
+    public int rows;
+
+    private Connection connection;
+    private PreparedStatement readDocument;
+    private PreparedStatement readVariant;
+    private String table;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                env("BENCHMARK_JDBC_URL", "jdbc:postgresql://localhost:5432/cms_loadtest"),
+                env("BENCHMARK_JDBC_USER", "postgres"),
+                env("BENCHMARK_JDBC_PASSWORD", "password"));
+        table = "variant_storage_benchmark_" + storage;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            statement.execute("CREATE TABLE " + table + " (user_id bigint PRIMARY KEY, variants " + storage + " NOT NULL)");
+        }
+
+        // Both hero variants, each row edited a little so the rows do not compress as one
+        String split = SectionTemplates.readBundled(SectionType.HERO, "split");
+        String centered = SectionTemplates.readBundled(SectionType.HERO, "centered");
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (user_id, variants) VALUES (?, ?" + ("jsonb".equals(storage) ? "::jsonb" : "") + ")")) {
+            for (int userId = 1; userId <= rows; userId++) {
+                insert.setLong(1, userId);
+                insert.setString(2, SectionVariants.toJson(Map.of(
+                        "split", "{\"title\":\"Page of user " + userId + "\"," + split.substring(1),
+                        "centered", centered)));
+                insert.addBatch();
+                if (userId % 1000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM ANALYZE " + table);
+        }
+
+        readDocument = connection.prepareStatement("SELECT variants FROM " + table + " WHERE user_id = ?");
+        // A text column is parsed on every read before a member can be taken out
+        readVariant = connection.prepareStatement("SELECT (variants" + ("text".equals(storage) ? "::jsonb" : "")
+                + ") ->> 'split' FROM " + table + " WHERE user_id = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet size = statement.executeQuery("SELECT pg_total_relation_size('" + table + "')")) {
+            size.next();
+            System.out.printf("%n%s storage: %d rows take %d kB%n", storage, rows, size.getLong(1) / 1024);
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE " + table);
+        }
+        connection.close();
+    }
+
+    // What the section services read, the whole column as a string
+    @Benchmark
+    public String readDocument() throws SQLException {
+        return read(readDocument);
+    }
+
+    // A single variant taken out by path in the database
+    @Benchmark
+    public String readVariant() throws SQLException {
+        return read(readVariant);
+    }
+
+    private String read(PreparedStatement statement) throws SQLException {
+        statement.setLong(1, ThreadLocalRandom.current().nextLong(1, rows + 1));
+        try (ResultSet result = statement.executeQuery()) {
+            result.next();
+            return result.getString(1);
+        }
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.security;
+
+import com.example.BenchmarkSupport;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class BcryptBenchmark {
+
+    // The calibration keeps the cost between bcrypt.min-cost and bcrypt.max-cost
+    @Param({"10", "12"})
+    private int cost;
+
+    private BcryptEncoderService bcryptEncoderService;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        bcryptEncoderService = BenchmarkSupport.inject(new BcryptEncoderService(), "cost", cost);
+        hash = bcryptEncoderService.hashPassword("benchmark-password");
+    }
+
+    @Benchmark
+    public String hashPassword() {
+        return bcryptEncoderService.hashPassword("benchmark-password");
+    }
+
+    @Benchmark
+    public boolean verifyPassword() {
+        return bcryptEncoderService.verifyPassword("benchmark-password", hash);
+    }
+
+    @Benchmark
+    public boolean needsRehash() {
+        return bcryptEncoderService.needsRehash(hash);
+    }
+}
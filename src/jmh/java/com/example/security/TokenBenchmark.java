@@ -0,0 +1,48 @@
+package com.example.security;
+
+import com.example.BenchmarkSupport;
+import com.example.LoginRequest;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenBenchmark {
+
+    private TokenHandler tokenHandler;
+    private TokenValidator tokenValidator;
+    private VerifiedTokenCache verifiedTokenCache;
+    private LoginRequest loginRequest;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        tokenHandler = BenchmarkSupport.inject(new TokenHandler(), "meterRegistry", meterRegistry);
+        tokenValidator = BenchmarkSupport.inject(new TokenValidator(), "meterRegistry", meterRegistry);
+        verifiedTokenCache = BenchmarkSupport.inject(new VerifiedTokenCache(100_000, Duration.ofMinutes(15)), "tokenValidator", tokenValidator);
+        loginRequest = LoginRequest.newBuilder().setUserName("benchmark-user").setPassword("secret").build();
+        token = tokenHandler.generateAccessToken(loginRequest, 1L);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return tokenHandler.generateAccessToken(loginRequest, 1L);
+    }
+
+    @Benchmark
+    public Claims validateToken() {
+        return tokenValidator.validateToken(token, Constants.JWT_SIGNING_KEY);
+    }
+
+    // What the interceptor pays for a token it has seen before
+    @Benchmark
+    public Claims validateCachedToken() {
+        return verifiedTokenCache.validate(token);
+    }
+}
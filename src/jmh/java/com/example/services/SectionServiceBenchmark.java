@@ -0,0 +1,89 @@
+package com.example.services;
+
+import com.example.BenchmarkSupport;
+import com.example.JsonPatchOperation;
+import com.example.SectionType;
+import com.example.entity.Section;
+import com.example.entity.SectionId;
+import com.example.patch.JsonPatchApplier;
+import com.example.repository.SectionVariants;
+import com.example.templates.SectionTemplates;
+import com.google.protobuf.Message;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// The CPU side of a section request: merging the request fields, converting the variants column and building
+// the response. The database round trips are measured by the load test instead.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SectionServiceBenchmark {
+
+    private SectionService sectionService;
+    private JsonPatchApplier jsonPatchApplier;
+    private Section section;
+    private Map<String, String> variants;
+    private String variantsJson;
+    private SectionUpdate update;
+    private List<JsonPatchOperation> operations;
+
+    @Setup
+    public void setUp() {
+        // Every variant is stored with the section, so resolving never reaches the template repository
+        sectionService = BenchmarkSupport.inject(new SectionService(), "sectionTemplates", new SectionTemplates());
+        jsonPatchApplier = new JsonPatchApplier();
+
+        variants = Map.of(
+                "split", SectionTemplates.readBundled(SectionType.HERO, "split"),
+                "centered", SectionTemplates.readBundled(SectionType.HERO, "centered"));
+        variantsJson = SectionVariants.toJson(variants);
+
+        section = new Section();
+        section.setId(new SectionId(1L, SectionType.HERO));
+        section.setActive("Split");
+        section.setVariants(variantsJson);
+        section.setVersion(42);
+        section.setTemplateVersion(SectionTemplates.CURRENT_VERSION);
+
+        update = new SectionUpdate("Centered", Map.of("split", variants.get("split"), "centered", ""), List.of(), null);
+        operations = List.of(
+                JsonPatchOperation.newBuilder().setOp("add").setPath("/benchmark").setValue("\"value\"").build(),
+                JsonPatchOperation.newBuilder().setOp("replace").setPath("/benchmark").setValue("{\"nested\":true}").build(),
+                JsonPatchOperation.newBuilder().setOp("remove").setPath("/benchmark").build());
+    }
+
+    @Benchmark
+    public Message toResponse() {
+        return sectionService.toResponse(section);
+    }
+
+    // What each section RPC adapter does with its request fields
+    @Benchmark
+    public SectionUpdate createUpdate() {
+        return new SectionUpdate("Centered", Map.of("split", variants.get("split"), "centered", ""), List.of(), 42L);
+    }
+
+    // What the write-behind buffer does with consecutive changes of one section
+    @Benchmark
+    public SectionUpdate mergeUpdates() {
+        return update.merge(update);
+    }
+
+    @Benchmark
+    public String variantsToJson() {
+        return SectionVariants.toJson(variants);
+    }
+
+    @Benchmark
+    public Map<String, String> variantsFromJson() {
+        return SectionVariants.fromJson(variantsJson);
+    }
+
+    @Benchmark
+    public String applyPatch() {
+        return jsonPatchApplier.apply(variants.get("split"), operations);
+    }
+}
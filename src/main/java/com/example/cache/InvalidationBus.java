@@ -0,0 +1,292 @@
+package com.example.cache;
+
+import com.example.SectionType;
+import com.example.events.PagePublishedEvent;
+import com.example.events.SectionChangeBroker;
+import com.example.events.SectionChangedEvent;
+import com.example.services.SectionService;
+import com.example.snapshots.PageSnapshotStore;
+import io.micronaut.context.BeanProvider;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.transaction.annotation.TransactionalEventListener;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Keeps the per-node caches of all replicas consistent through Postgres NOTIFY, without a separate broker.
+// Both directions use their own connection outside the Hikari pool, a LISTEN connection is held forever.
+@Singleton
+public class InvalidationBus {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private static final String SECTION = "SECTION";
+    private static final String ALL = "ALL";
+    private static final String PUBLISHED = "PUBLISHED";
+
+    // Identifies this node so it ignores the notifications it sent itself
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${invalidation.channel:cms_invalidation}")
+    private String channel;
+
+    @Value("${datasources.default.url}")
+    private String url;
+
+    @Value("${datasources.default.username}")
+    private String username;
+
+    @Value("${datasources.default.password}")
+    private String password;
+
+    @Inject
+    private SectionCache sectionCache;
+
+    @Inject
+    private PageSnapshotStore pageSnapshotStore;
+
+    @Inject
+    private SectionChangeBroker sectionChangeBroker;
+
+    // Looked up lazily, the section service depends on beans that are created after this one
+    @Inject
+    private BeanProvider<SectionService> sectionService;
+
+    // Notifications are sent off the request thread, in order, by a single thread
+    private final ThreadPoolExecutor publisher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(10_000), runnable -> {
+        Thread thread = new Thread(runnable, "invalidation-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Reloads sections changed on other nodes for the local watchers, one at a time so they stay in order
+    private final ThreadPoolExecutor reloader = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(10_000), runnable -> {
+        Thread thread = new Thread(runnable, "invalidation-reloader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Only used by the publisher thread
+    private Connection publishConnection;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @EventListener
+    public void onStartup(StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    // Runs once the section change is committed, other nodes evict their copy of that section
+    @TransactionalEventListener
+    public void onSectionChanged(SectionChangedEvent event) {
+        send(String.join("|", nodeId, SECTION, String.valueOf(event.userId()), event.getType().name()));
+    }
+
+    // Other nodes drop their copy of the snapshot and load the new one from the database on the next read
+    @TransactionalEventListener
+    public void onPagePublished(PagePublishedEvent event) {
+        send(String.join("|", nodeId, PUBLISHED, String.valueOf(event.userId())));
+    }
+
+    // Other nodes drop their whole cache, used after bulk writes that bypass the section services
+    public void publishAllChanged() {
+        send(String.join("|", nodeId, ALL));
+    }
+
+    private void send(String payload) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            publisher.execute(() -> notify(payload));
+        } catch (RejectedExecutionException e) {
+            // Other nodes serve their copy until the section cache expires it
+            LOG.warn("Invalidation queue is full, dropping notification {}", payload);
+        }
+    }
+
+    // Tried again once on a new connection, the held one may have been closed by the server.
+    // A notification that still fails is lost, other nodes serve their copy until the section cache expires it.
+    private void notify(String payload) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (publishConnection == null || publishConnection.isClosed()) {
+                    publishConnection = DriverManager.getConnection(url, username, password);
+                }
+                try (PreparedStatement statement = publishConnection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                    statement.setString(1, channel);
+                    statement.setString(2, payload);
+                    statement.execute();
+                }
+                return;
+            } catch (SQLException e) {
+                closeQuietly(publishConnection);
+                publishConnection = null;
+                if (attempt == 2) {
+                    LOG.warn("Failed to publish invalidation {}", payload, e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void listen() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN \"" + channel + "\"");
+                }
+                // Notifications sent while this node was not listening are lost. The section cache only holds what
+                // was read since startup, so it is cleared on a reconnect. The snapshot store also keeps what it held
+                // before a restart, only its outdated pages are evicted.
+                if (reconnect) {
+                    sectionCache.invalidateAll();
+                }
+                reconnect = true;
+                evictOutdatedSnapshots(connection);
+                LOG.info("Listening for cache invalidations on channel {}", channel);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    LOG.warn("Invalidation listener lost its connection, reconnecting", e);
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    // Runs after LISTEN, a page published after this query is evicted by its notification
+    private void evictOutdatedSnapshots(Connection connection) throws SQLException {
+        Map<Long, Long> revisions = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT user_id, revision FROM page_snapshot")) {
+            while (result.next()) {
+                revisions.put(result.getLong(1), result.getLong(2));
+            }
+        }
+        int evicted = pageSnapshotStore.evictOutdated(revisions);
+        if (evicted > 0) {
+            LOG.info("Evicted {} outdated page snapshots", evicted);
+        }
+    }
+
+    private void handle(String payload) {
+        String[] parts = payload.split("\\|");
+        if (parts.length < 2 || parts[0].equals(nodeId)) {
+            return;
+        }
+        if (ALL.equals(parts[1])) {
+            sectionCache.invalidateAll();
+            return;
+        }
+        if (parts.length < 3) {
+            return;
+        }
+        try {
+            Long userId = Long.parseLong(parts[2]);
+            if (SECTION.equals(parts[1]) && parts.length == 4) {
+                SectionType type = SectionType.valueOf(parts[3]);
+                sectionCache.invalidate(userId, type);
+                reloadForWatchers(userId, type);
+            } else if (PUBLISHED.equals(parts[1])) {
+                pageSnapshotStore.evict(userId);
+            }
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Ignoring malformed invalidation {}", payload);
+        }
+    }
+
+    // The watchers of this node only hear about local changes from the broker, a change committed
+    // on another node is read back from the primary and pushed to them here
+    private void reloadForWatchers(Long userId, SectionType type) {
+        if (!sectionChangeBroker.hasSubscribers(userId)) {
+            return;
+        }
+        try {
+            reloader.execute(() -> {
+                try {
+                    sectionService.get().findSection(userId, type)
+                            .ifPresent(section -> sectionChangeBroker.publish(SectionChangedEvent.of(userId, type, section)));
+                } catch (Exception e) {
+                    LOG.warn("Failed to reload the {} section of user {} for its watchers", type, userId, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Reload queue is full, watchers of user {} miss a {} change", userId, type);
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // The connection is discarded anyway
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+        publisher.shutdown();
+        reloader.shutdownNow();
+        try {
+            publisher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeQuietly(publishConnection);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.cache;
+
+import com.example.SectionType;
+import com.example.events.SectionChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.protobuf.Message;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.micronaut.transaction.annotation.TransactionalEventListener;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+// Keeps the last known response of every section, keyed by user id and section type
+@Singleton
+public class SectionCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SectionCache.class);
+
+    private final Cache<SectionKey, Message> cache;
+
+    // Entries expire after a while as a safety net: a database read that started before a change on another node
+    // can put its older response back after the InvalidationBus evicted the key, or the notification may be lost
+    public SectionCache(@Value("${sections.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${sections.cache.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    // Returns null on a miss
+    public <T extends Message> T get(Long userId, SectionType type, Class<T> responseType) {
+        Message response = cache.getIfPresent(new SectionKey(userId, type));
+        return responseType.isInstance(response) ? responseType.cast(response) : null;
+    }
+
+    // Used for values read from the database, never replaces a value put by a committed write
+    public void putIfAbsent(Long userId, SectionType type, Message response) {
+        cache.asMap().putIfAbsent(new SectionKey(userId, type), response);
+    }
+
+    public void put(Long userId, SectionType type, Message response) {
+        cache.put(new SectionKey(userId, type), response);
+    }
+
+    public void invalidate(Long userId, SectionType type) {
+        cache.invalidate(new SectionKey(userId, type));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    // Writes update the cache only once they are committed
+    @TransactionalEventListener
+    public void onSectionChanged(SectionChangedEvent event) {
+        put(event.userId(), event.getType(), event.getSection());
+    }
+
+    @Scheduled(fixedDelay = "${sections.cache.stats-interval:5m}", initialDelay = "${sections.cache.stats-interval:5m}")
+    public void logStats() {
+        CacheStats stats = cache.stats();
+        LOG.info("Section cache: size={}, hits={}, misses={}, evictions={}, hitRate={}",
+                cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate());
+    }
+
+    private record SectionKey(Long userId, SectionType type) {
+    }
+}
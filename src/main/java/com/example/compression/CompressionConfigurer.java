@@ -0,0 +1,34 @@
+package com.example.compression;
+
+import io.grpc.Codec;
+import io.grpc.CompressorRegistry;
+import io.grpc.DecompressorRegistry;
+import io.grpc.ServerBuilder;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import jakarta.inject.Singleton;
+
+// Registers the dictionary codec with the gRPC server next to the built-in gzip
+@Singleton
+public class CompressionConfigurer implements BeanCreatedEventListener<ServerBuilder<?>> {
+
+    @Value("${compression.zstd-level:3}")
+    private int zstdLevel;
+
+    @Override
+    public ServerBuilder<?> onCreated(BeanCreatedEvent<ServerBuilder<?>> event) {
+        ZstdDictionaryCodec codec = new ZstdDictionaryCodec(zstdLevel);
+
+        CompressorRegistry compressors = CompressorRegistry.newEmptyInstance();
+        compressors.register(new Codec.Gzip());
+        compressors.register(codec);
+
+        // Advertised in grpc-accept-encoding so clients may compress their requests with it too
+        DecompressorRegistry decompressors = DecompressorRegistry.getDefaultInstance().with(codec, true);
+
+        return event.getBean()
+                .compressorRegistry(compressors)
+                .decompressorRegistry(decompressors);
+    }
+}
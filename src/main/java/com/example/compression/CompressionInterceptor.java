@@ -0,0 +1,38 @@
+package com.example.compression;
+
+import io.grpc.*;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+
+// Chooses the response compression per call from what the client accepts: the dictionary codec first, then gzip.
+// Clients that accept neither, such as most gRPC-web clients, are answered uncompressed.
+@Singleton
+public class CompressionInterceptor implements ServerInterceptor {
+
+    private static final Metadata.Key<String> ACCEPT_ENCODING = Metadata.Key.of("grpc-accept-encoding", Metadata.ASCII_STRING_MARSHALLER);
+
+    @Value("${compression.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> serverCall, Metadata headers, ServerCallHandler<ReqT, RespT> serverCallHandler) {
+        String acceptEncoding = headers.get(ACCEPT_ENCODING);
+        if (enabled && acceptEncoding != null) {
+            if (accepts(acceptEncoding, ZstdDictionaryCodec.ENCODING)) {
+                serverCall.setCompression(ZstdDictionaryCodec.ENCODING);
+            } else if (accepts(acceptEncoding, "gzip")) {
+                serverCall.setCompression("gzip");
+            }
+        }
+        return serverCallHandler.startCall(serverCall, headers);
+    }
+
+    private static boolean accepts(String acceptEncoding, String encoding) {
+        for (String accepted : acceptEncoding.split(",")) {
+            if (accepted.trim().equals(encoding)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
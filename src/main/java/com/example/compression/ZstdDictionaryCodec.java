@@ -0,0 +1,58 @@
+package com.example.compression;
+
+import com.example.repository.SectionLayout;
+import com.example.templates.SectionTemplates;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import io.grpc.Codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// zstd with the bundled default templates as a raw content dictionary. Section documents repeat the same
+// JSON structure as the templates, so most of a message compresses to references into the dictionary.
+// A client has to build the same dictionary, the encoding name carries the template version for that reason.
+public class ZstdDictionaryCodec implements Codec {
+
+    public static final String ENCODING = "zstd-tpl" + SectionTemplates.CURRENT_VERSION;
+
+    private final ZstdDictCompress compressDictionary;
+    private final ZstdDictDecompress decompressDictionary;
+
+    public ZstdDictionaryCodec(int level) {
+        byte[] dictionary = buildDictionary();
+        this.compressDictionary = new ZstdDictCompress(dictionary, level);
+        this.decompressDictionary = new ZstdDictDecompress(dictionary);
+    }
+
+    // Every bundled template of the current version, in SectionLayout order so every build produces the same bytes
+    public static byte[] buildDictionary() {
+        ByteArrayOutputStream dictionary = new ByteArrayOutputStream();
+        for (SectionLayout layout : SectionLayout.ALL) {
+            for (String variant : layout.variants()) {
+                dictionary.writeBytes(SectionTemplates.readBundled(layout.type(), variant).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return dictionary.toByteArray();
+    }
+
+    @Override
+    public String getMessageEncoding() {
+        return ENCODING;
+    }
+
+    @Override
+    public OutputStream compress(OutputStream os) throws IOException {
+        return new ZstdOutputStream(os).setDict(compressDictionary);
+    }
+
+    @Override
+    public InputStream decompress(InputStream is) throws IOException {
+        return new ZstdInputStream(is).setDict(decompressDictionary);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.entity;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.data.annotation.MappedEntity;
+import io.micronaut.data.model.naming.NamingStrategies;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+// The last published page of a user, a serialized PublishedPage. Source of truth for the local snapshot stores,
+// which load it once per node.
+@Introspected
+@Getter
+@Setter
+@Entity
+@MappedEntity(namingStrategy = NamingStrategies.LowerCase.class)
+@Table(name = "page_snapshot")
+public class PageSnapshot {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "revision", nullable = false)
+    private long revision;
+
+    @Column(name = "content", nullable = false, columnDefinition = "bytea")
+    private byte[] content;
+}
@@ -0,0 +1,41 @@
+package com.example.entity;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.data.annotation.MappedEntity;
+import io.micronaut.data.model.naming.NamingStrategies;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.Type;
+
+// One row per user and section type. The primary key (user_id, section_type) is the only index,
+// all sections of a page are a single range of it.
+@Introspected
+@Getter
+@Setter
+@Entity
+@MappedEntity(namingStrategy = NamingStrategies.LowerCase.class)
+@Table(name = "page_section")
+public class Section {
+
+    @EmbeddedId
+    private SectionId id;
+
+    @Column(name = "active")
+    private String active;
+
+    // JSON object of the variant documents the user changed, keyed by variant name.
+    // A variant missing from it resolves to the shared template of templateVersion.
+    @Type(JsonbStringType.class)
+    @Column(columnDefinition = "jsonb not null default '{}'", name = "variants")
+    private String variants;
+
+    // Incremented on every change, used for conditional reads and optimistic locking
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
+    // Version of the shared default templates used for the variants the user did not change
+    @Column(name = "template_version")
+    private Integer templateVersion;
+}
@@ -0,0 +1,34 @@
+package com.example.entity;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.data.annotation.MappedEntity;
+import io.micronaut.data.model.naming.NamingStrategies;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+// Default content of one section variant, stored once per template version and shared by every user
+@Introspected
+@Getter
+@Setter
+@Entity
+@MappedEntity(namingStrategy = NamingStrategies.LowerCase.class)
+@Table(name = "section_template", uniqueConstraints = {@UniqueConstraint(columnNames = {"section_type", "variant", "version"})})
+public class SectionTemplate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "section_type")
+    private String sectionType;
+
+    @Column(name = "variant")
+    private String variant;
+
+    @Column(name = "version")
+    private Integer version;
+
+    @Column(columnDefinition = "TEXT", name = "content")
+    private String content;
+}
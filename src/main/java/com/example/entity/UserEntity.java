@@ -22,8 +22,4 @@ public class UserEntity {
     private String email;
 
     private String password;
-
-    // Establish a One-to-One relationship with HeroSection
-    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private HeroSection heroSection;
 }
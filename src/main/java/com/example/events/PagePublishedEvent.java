@@ -0,0 +1,5 @@
+package com.example.events;
+
+// Published when a new snapshot of a page is stored
+public record PagePublishedEvent(Long userId, byte[] snapshot) {
+}
@@ -0,0 +1,105 @@
+package com.example.events;
+
+import com.example.SectionChange;
+import com.example.SectionType;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.transaction.annotation.TransactionalEventListener;
+import jakarta.inject.Singleton;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Singleton
+public class SectionChangeBroker {
+
+    @Value("${sections.watch.max-subscribers-per-user:16}")
+    private int maxSubscribersPerUser;
+
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    // Returns false when the user already has the maximum number of open streams
+    public boolean subscribe(Long userId, ServerCallStreamObserver<SectionChange> observer) {
+        Subscriber subscriber = new Subscriber(observer);
+        boolean[] added = {false};
+        subscribers.compute(userId, (id, list) -> {
+            if (list == null) {
+                list = new CopyOnWriteArrayList<>();
+            }
+            if (list.size() < maxSubscribersPerUser) {
+                list.add(subscriber);
+                added[0] = true;
+            }
+            return list;
+        });
+        if (!added[0]) {
+            return false;
+        }
+
+        // Only send while the transport can take more, the rest waits in the subscriber's buffer
+        observer.setOnReadyHandler(subscriber::drain);
+        observer.setOnCancelHandler(() -> unsubscribe(userId, subscriber));
+        return true;
+    }
+
+    // Runs only once the transaction that changed the section has committed
+    @TransactionalEventListener
+    public void onSectionChanged(SectionChangedEvent event) {
+        publish(event);
+    }
+
+    // Also used for changes committed on other nodes, see InvalidationBus
+    public void publish(SectionChangedEvent event) {
+        List<Subscriber> userSubscribers = subscribers.get(event.userId());
+        if (userSubscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : userSubscribers) {
+            subscriber.offer(event.change());
+        }
+    }
+
+    public boolean hasSubscribers(Long userId) {
+        return subscribers.containsKey(userId);
+    }
+
+    private void unsubscribe(Long userId, Subscriber subscriber) {
+        subscribers.computeIfPresent(userId, (id, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private static final class Subscriber {
+
+        private final ServerCallStreamObserver<SectionChange> observer;
+
+        // Holds at most one pending value per section type, a newer change replaces the one not yet sent
+        private final Map<SectionType, SectionChange> pending = new EnumMap<>(SectionType.class);
+
+        private Subscriber(ServerCallStreamObserver<SectionChange> observer) {
+            this.observer = observer;
+        }
+
+        void offer(SectionChange change) {
+            synchronized (this) {
+                pending.put(change.getType(), change);
+            }
+            drain();
+        }
+
+        synchronized void drain() {
+            if (observer.isCancelled()) {
+                pending.clear();
+                return;
+            }
+            Iterator<SectionChange> iterator = pending.values().iterator();
+            while (observer.isReady() && iterator.hasNext()) {
+                SectionChange change = iterator.next();
+                iterator.remove();
+                observer.onNext(change);
+            }
+        }
+    }
+}
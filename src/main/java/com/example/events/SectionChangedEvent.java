@@ -0,0 +1,34 @@
+package com.example.events;
+
+import com.example.*;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+
+import java.util.Locale;
+
+// Published by the section services whenever a section row is created or changed
+public record SectionChangedEvent(Long userId, SectionChange change) {
+
+    public SectionType getType() {
+        return change.getType();
+    }
+
+    // The response message of the changed section
+    public Message getSection() {
+        return switch (change.getSectionCase()) {
+            case HERO -> change.getHero();
+            case NAV -> change.getNav();
+            case SLIDER -> change.getSlider();
+            case CONTACT -> change.getContact();
+            case DETAIL -> change.getDetail();
+            case FOOTER -> change.getFooter();
+            case SECTION_NOT_SET -> throw new IllegalStateException("Section change without a section");
+        };
+    }
+
+    // The oneof field of SectionChange is named after the section type
+    public static SectionChangedEvent of(Long userId, SectionType type, Message section) {
+        Descriptors.FieldDescriptor field = SectionChange.getDescriptor().findFieldByName(type.name().toLowerCase(Locale.ROOT));
+        return new SectionChangedEvent(userId, SectionChange.newBuilder().setType(type).setField(field, section).build());
+    }
+}
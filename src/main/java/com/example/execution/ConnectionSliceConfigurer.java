@@ -0,0 +1,52 @@
+package com.example.execution;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.core.order.Ordered;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Slices the connection pool between the execution groups, see SlicedDataSource
+@Singleton
+public class ConnectionSliceConfigurer implements BeanCreatedEventListener<DataSource>, Ordered {
+
+    @Inject
+    private ExecutionGroups executionGroups;
+
+    private final List<SlicedDataSource> dataSources = new ArrayList<>();
+
+    @Override
+    public synchronized DataSource onCreated(BeanCreatedEvent<DataSource> event) {
+        DataSource bean = event.getBean();
+        if (executionGroups.isShared()) {
+            return bean;
+        }
+        SlicedDataSource dataSource;
+        try {
+            dataSource = new SlicedDataSource(bean, bean.unwrap(HikariDataSource.class));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Execution groups need a Hikari datasource to slice", e);
+        }
+        dataSources.add(dataSource);
+        return dataSource;
+    }
+
+    // Wraps the Hikari pool itself, before the replica routing wraps the result, so the routing's primary
+    // connections also come from the group's pool
+    @Override
+    public int getOrder() {
+        return HIGHEST_PRECEDENCE;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        dataSources.forEach(SlicedDataSource::close);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.execution;
+
+import io.grpc.ServerBuilder;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+// Hands the calls of every execution group to the group's executor, the other calls stay on the shared one
+@Singleton
+public class ExecutionConfigurer implements BeanCreatedEventListener<ServerBuilder<?>> {
+
+    @Inject
+    private ExecutionGroups executionGroups;
+
+    @Override
+    public ServerBuilder<?> onCreated(BeanCreatedEvent<ServerBuilder<?>> event) {
+        if (executionGroups.isShared()) {
+            return event.getBean();
+        }
+        return event.getBean().callExecutor(executionGroups);
+    }
+}
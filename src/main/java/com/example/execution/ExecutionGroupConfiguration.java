@@ -0,0 +1,30 @@
+package com.example.execution;
+
+import io.micronaut.context.annotation.EachProperty;
+import io.micronaut.context.annotation.Parameter;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+// One execution.groups.<name> entry: the gRPC services that share a thread pool and a connection pool
+@Getter
+@Setter
+@EachProperty("execution.groups")
+public class ExecutionGroupConfiguration {
+
+    private final String name;
+
+    // Service names as declared in the protos, with their package, e.g. com.example.UserLogin or HeroSectionService
+    private List<String> services = List.of();
+
+    // Pool size in bulkhead mode, virtual threads are not limited
+    private int threads = 16;
+
+    // Size of the connection pool of the group, 0 to take connections from the shared pool
+    private int maxConnections;
+
+    public ExecutionGroupConfiguration(@Parameter String name) {
+        this.name = name;
+    }
+}
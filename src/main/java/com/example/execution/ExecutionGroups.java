@@ -0,0 +1,160 @@
+package com.example.execution;
+
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallExecutorSupplier;
+import io.micronaut.context.annotation.Value;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Runs the calls of each service group on executors of their own, so a group blocked on a slow database
+// cannot take the threads of the others. Services outside every group keep the shared gRPC executor.
+//   shared:   every call on the shared executor, the groups are ignored
+//   bulkhead: a fixed pool of execution.groups.<name>.threads per group
+//   virtual:  a virtual thread per call, Java 21 or newer
+// In bulkhead and virtual mode a group with max-connections also takes its connections from a pool of that size.
+@Singleton
+public class ExecutionGroups implements ServerCallExecutorSupplier {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExecutionGroups.class);
+
+    // The group of the call running on the current thread, read by SlicedDataSource
+    private static final ThreadLocal<ExecutionGroup> CURRENT = new ThreadLocal<>();
+
+    private final String mode;
+    private final Map<String, ExecutionGroup> groupsByService = new HashMap<>();
+    private final List<ExecutionGroup> groups = new ArrayList<>();
+
+    public ExecutionGroups(@Value("${execution.mode:shared}") String mode,
+                           @Value("${execution.connection-timeout:5s}") Duration connectionTimeout,
+                           List<ExecutionGroupConfiguration> configurations) {
+        this.mode = mode.toLowerCase(Locale.ROOT);
+        if (!Set.of("shared", "bulkhead", "virtual").contains(this.mode)) {
+            throw new IllegalArgumentException("Unknown execution.mode " + mode + ", expected shared, bulkhead or virtual");
+        }
+        if (isShared()) {
+            return;
+        }
+        for (ExecutionGroupConfiguration configuration : configurations) {
+            ExecutorService executor = "virtual".equals(this.mode)
+                    ? newVirtualThreadExecutor()
+                    : newPool(configuration.getName(), configuration.getThreads());
+            ExecutionGroup group = new ExecutionGroup(configuration.getName(), executor,
+                    configuration.getMaxConnections(), connectionTimeout);
+            groups.add(group);
+            for (String service : configuration.getServices()) {
+                groupsByService.put(service, group);
+            }
+            LOG.info("Execution group {}: {} mode, services {}, max connections {}", configuration.getName(), this.mode,
+                    configuration.getServices(), configuration.getMaxConnections() > 0 ? configuration.getMaxConnections() : "unlimited");
+        }
+    }
+
+    public boolean isShared() {
+        return "shared".equals(mode);
+    }
+
+    // Null keeps the shared executor
+    @Override
+    public <ReqT> Executor getExecutor(ServerCall<ReqT, ?> call, Metadata metadata) {
+        ExecutionGroup group = groupsByService.get(call.getMethodDescriptor().getServiceName());
+        return group;
+    }
+
+    static ExecutionGroup current() {
+        return CURRENT.get();
+    }
+
+    // Binds the task to the group of the calling thread, for work a call hands to another executor (bcrypt, the
+    // blocking pool, the write-behind flusher) whose connections still belong to the call's group
+    public static Runnable propagate(Runnable task) {
+        ExecutionGroup group = CURRENT.get();
+        return group == null ? task : () -> runIn(group, task);
+    }
+
+    public static <T> Consumer<T> propagate(Consumer<T> task) {
+        ExecutionGroup group = CURRENT.get();
+        return group == null ? task : value -> runIn(group, () -> task.accept(value));
+    }
+
+    private static void runIn(ExecutionGroup group, Runnable task) {
+        ExecutionGroup previous = CURRENT.get();
+        CURRENT.set(group);
+        try {
+            task.run();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    private static ExecutorService newPool(String name, int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "grpc-" + name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Looked up reflectively, the build still targets Java 17
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("execution.mode virtual needs Java 21 or newer, running on " + Runtime.version());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutionGroup group : groups) {
+            group.pool.shutdown();
+        }
+    }
+
+    // Tasks run with their group set on the thread, so connections they open come from the group's pool
+    static final class ExecutionGroup implements Executor {
+
+        private final String name;
+        private final ExecutorService pool;
+        private final int maxConnections;
+        private final Duration connectionTimeout;
+
+        private ExecutionGroup(String name, ExecutorService pool, int maxConnections, Duration connectionTimeout) {
+            this.name = name;
+            this.pool = pool;
+            this.maxConnections = maxConnections;
+            this.connectionTimeout = connectionTimeout;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            pool.execute(() -> runIn(this, task));
+        }
+
+        String name() {
+            return name;
+        }
+
+        // 0 when the group uses the shared connection pool
+        int maxConnections() {
+            return maxConnections;
+        }
+
+        Duration connectionTimeout() {
+            return connectionTimeout;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.execution;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+// Gives each execution group with max-connections a Hikari pool of its own, configured like the shared one but
+// sized to the group's slice. A group at its limit waits on its own pool, so it can neither drain the connections
+// of the other groups nor make them wait behind it. The pools are opened on a group's first connection.
+// Connections opened outside a group, such as by the migration and the invalidation bus, come from the shared pool.
+class SlicedDataSource implements DataSource {
+
+    private final DataSource delegate;
+    // The shared pool, whose settings the slices copy
+    private final HikariDataSource hikari;
+    private final Map<String, HikariDataSource> slices = new ConcurrentHashMap<>();
+
+    SlicedDataSource(DataSource delegate, HikariDataSource hikari) {
+        this.delegate = delegate;
+        this.hikari = hikari;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return dataSourceOfCurrentGroup().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return dataSourceOfCurrentGroup().getConnection(username, password);
+    }
+
+    private DataSource dataSourceOfCurrentGroup() {
+        ExecutionGroups.ExecutionGroup group = ExecutionGroups.current();
+        if (group == null || group.maxConnections() <= 0) {
+            return delegate;
+        }
+        return slices.computeIfAbsent(group.name(), name -> newSlice(group));
+    }
+
+    private HikariDataSource newSlice(ExecutionGroups.ExecutionGroup group) {
+        HikariConfig config = new HikariConfig();
+        hikari.copyStateTo(config);
+        config.setPoolName(hikari.getPoolName() + "-" + group.name());
+        config.setMaximumPoolSize(group.maxConnections());
+        config.setMinimumIdle(Math.min(hikari.getMinimumIdle(), group.maxConnections()));
+        config.setConnectionTimeout(group.connectionTimeout().toMillis());
+        return new HikariDataSource(config);
+    }
+
+    void close() {
+        slices.values().forEach(HikariDataSource::close);
+        slices.clear();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) throws SQLException {
+        return type.isInstance(delegate) ? type.cast(delegate) : delegate.unwrap(type);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) throws SQLException {
+        return type.isInstance(delegate) || delegate.isWrapperFor(type);
+    }
+}
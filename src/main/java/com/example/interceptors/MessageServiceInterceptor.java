@@ -2,44 +2,61 @@ package com.example.interceptors;
 
 import com.example.exceptions.InvalidTokenException;
 import com.example.security.Constants;
-import com.example.security.TokenValidator;
+import com.example.security.VerifiedTokenCache;
+import com.example.timing.ServerTiming;
 import io.grpc.*;
 import io.jsonwebtoken.Claims;
+import io.micronaut.context.annotation.Value;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
 
 @Singleton
 public class MessageServiceInterceptor implements ServerInterceptor {
+    private static final Logger LOG = LoggerFactory.getLogger(MessageServiceInterceptor.class);
     @Inject
-    private TokenValidator tokenValidator;
+    private VerifiedTokenCache verifiedTokenCache;
+    // Full service names whose calls need an access token, every other service is open
+    @Value("${security.protected-services}")
+    private List<String> protectedServices;
     @Override
     public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> serverCall, Metadata headers, ServerCallHandler<ReqT, RespT> serverCallHandler) {
         MethodDescriptor<ReqT, RespT> methodDescriptor = serverCall.getMethodDescriptor();
 
-        if (methodDescriptor.getBareMethodName().equals("message")) {
-            System.out.println(headers);
+        if (protectedServices.contains(methodDescriptor.getServiceName())) {
             String authorizationHeader = headers.get(Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER));
-            System.out.println(authorizationHeader);
             if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
                 // Handle missing or invalid authorization header
                 serverCall.close(Status.UNAUTHENTICATED.withDescription("Invalid or missing access token"), headers);
-
+                return new ServerCall.Listener<>() {
+                };
             }
             String accessToken = authorizationHeader.substring(7);
-            System.out.println(methodDescriptor.getBareMethodName());
-
-            try {
-                // Validate the access token and extract claims
-                Claims claims = tokenValidator.validateToken(accessToken, Constants.JWT_SIGNING_KEY);
+            LOG.debug("Authenticating a call to {}", methodDescriptor.getFullMethodName());
 
-
-                return serverCallHandler.startCall(serverCall, headers);
+            Long userId;
+            try (ServerTiming.Phase ignored = ServerTiming.start("auth")) {
+                // Validate the access token and extract claims, a token seen before is served from the cache
+                Claims claims = verifiedTokenCache.validate(accessToken);
+                userId = claims.get(Constants.USER_ID_CLAIM, Long.class);
             } catch (InvalidTokenException e) {
 
                 serverCall.close(Status.UNAUTHENTICATED.withDescription("Invalid or expired access token"), headers);
                 return new ServerCall.Listener<>() {
                 };
             }
+            if (userId == null) {
+                // Issued before tokens named their user, the services could not tell whose sections it gives access to
+                serverCall.close(Status.UNAUTHENTICATED.withDescription("Access token has no user, log in again"), headers);
+                return new ServerCall.Listener<>() {
+                };
+            }
+            // The services check the user id of the request against it, see CallerIdentity
+            Context context = Context.current().withValue(Constants.USER_ID_CONTEXT_KEY, userId);
+            return Contexts.interceptCall(context, serverCall, headers, serverCallHandler);
         }
         return serverCallHandler.startCall(serverCall, headers);
 
@@ -0,0 +1,45 @@
+package com.example.interceptors;
+
+import com.example.PageTransferServiceGrpc;
+import io.grpc.*;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+// The page transfer service reads and replaces the sections of every user, so it is an admin operation: its calls
+// need the x-admin-token header set to sections.transfer.admin-token. Without a configured token it is refused.
+@Singleton
+public class TransferAuthInterceptor implements ServerInterceptor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransferAuthInterceptor.class);
+
+    static final Metadata.Key<String> ADMIN_TOKEN = Metadata.Key.of("x-admin-token", Metadata.ASCII_STRING_MARSHALLER);
+
+    @Value("${sections.transfer.admin-token:}")
+    private String adminToken;
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> serverCall, Metadata headers, ServerCallHandler<ReqT, RespT> serverCallHandler) {
+        if (!PageTransferServiceGrpc.SERVICE_NAME.equals(serverCall.getMethodDescriptor().getServiceName())) {
+            return serverCallHandler.startCall(serverCall, headers);
+        }
+        if (adminToken.isEmpty()) {
+            serverCall.close(Status.PERMISSION_DENIED.withDescription("Page transfer is disabled, no admin token is configured"), new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+        String token = headers.get(ADMIN_TOKEN);
+        // Compared in constant time so the token cannot be guessed from response times
+        if (token == null || !MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), adminToken.getBytes(StandardCharsets.UTF_8))) {
+            LOG.warn("Refused a call to {} without a valid admin token", serverCall.getMethodDescriptor().getFullMethodName());
+            serverCall.close(Status.UNAUTHENTICATED.withDescription("Invalid or missing admin token"), new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+        return serverCallHandler.startCall(serverCall, headers);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.limiter;
+
+import io.grpc.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.order.Ordered;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Limits the unary calls each service runs at once to an adaptive limit, see VegasLimit. A call over the limit
+// is rejected right away with UNAVAILABLE instead of queueing, so latency stays bounded under overload and
+// clients can back off or try another node. Streaming calls such as WatchSections and the transfers are not limited.
+@Singleton
+public class ConcurrencyLimitInterceptor implements ServerInterceptor, Ordered {
+
+    // Statuses that mean the call was shed or timed out rather than served. Other errors release the call
+    // without a sample, only the latency of a call that was served says something about the queue.
+    private static final Set<Status.Code> DROPPED = Set.of(Status.Code.DEADLINE_EXCEEDED, Status.Code.RESOURCE_EXHAUSTED, Status.Code.UNAVAILABLE);
+
+    @Value("${limiter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${limiter.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${limiter.min-limit:4}")
+    private int minLimit;
+
+    @Value("${limiter.max-limit:500}")
+    private int maxLimit;
+
+    @Inject
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, VegasLimit> limits = new ConcurrentHashMap<>();
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> serverCall, Metadata headers, ServerCallHandler<ReqT, RespT> serverCallHandler) {
+        MethodDescriptor<ReqT, RespT> method = serverCall.getMethodDescriptor();
+        if (!enabled || method.getType() != MethodDescriptor.MethodType.UNARY) {
+            return serverCallHandler.startCall(serverCall, headers);
+        }
+
+        String service = method.getServiceName();
+        VegasLimit limit = limits.computeIfAbsent(service, this::newLimit);
+        if (!limit.tryAcquire()) {
+            Counter.builder("grpc.server.limiter.rejected")
+                    .description("Calls rejected over the concurrency limit")
+                    .tag("service", service)
+                    .register(meterRegistry)
+                    .increment();
+            serverCall.close(Status.UNAVAILABLE.withDescription("Server is over its concurrency limit, try again later"), new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        ServerCall<ReqT, RespT> limitedCall = new ForwardingServerCall.SimpleForwardingServerCall<>(serverCall) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                if (released.compareAndSet(false, true)) {
+                    if (status.isOk()) {
+                        limit.release(method.getFullMethodName(), System.nanoTime() - start);
+                    } else if (DROPPED.contains(status.getCode())) {
+                        limit.releaseDropped();
+                    } else {
+                        limit.release();
+                    }
+                }
+                super.close(status, trailers);
+            }
+        };
+
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = serverCallHandler.startCall(limitedCall, headers);
+        } catch (RuntimeException e) {
+            if (released.compareAndSet(false, true)) {
+                limit.release();
+            }
+            throw e;
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            // A cancelled call is never closed by the server, the client gave up on it
+            @Override
+            public void onCancel() {
+                if (released.compareAndSet(false, true)) {
+                    limit.releaseDropped();
+                }
+                super.onCancel();
+            }
+        };
+    }
+
+    private VegasLimit newLimit(String service) {
+        VegasLimit limit = new VegasLimit(initialLimit, minLimit, maxLimit);
+        Gauge.builder("grpc.server.limiter.limit", limit, VegasLimit::getLimit)
+                .description("Adaptive concurrency limit")
+                .tag("service", service)
+                .register(meterRegistry);
+        Gauge.builder("grpc.server.limiter.in-flight", limit, VegasLimit::getInFlight)
+                .tag("service", service)
+                .register(meterRegistry);
+        return limit;
+    }
+
+    // Right after the server timing, a rejected call should cost as little as possible
+    @Override
+    public int getOrder() {
+        return HIGHEST_PRECEDENCE + 1;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.limiter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// In-flight limit of one service, adapted with the TCP Vegas rule: the ratio of the no-load latency to the
+// current latency estimates how many calls are queued inside the server. Few queued calls raise the limit,
+// many lower it, so the limit settles where calls start to wait instead of where the server collapses.
+// The methods of a service differ in cost, so each one has its own latencies and is compared only with itself.
+class VegasLimit {
+
+    // Weight of one sample in a method's smoothed latency, a slow call among fast ones only nudges it
+    private static final double SMOOTHING = 0.03;
+    // The no-load latency is this low percentile of the smoothed latency rather than its minimum,
+    // a single lucky sample cannot make every later call look queued
+    private static final double BASELINE_PERCENTILE = 0.1;
+    // Small enough that a lasting overload takes over a thousand calls to pass for the new no-load latency
+    private static final double BASELINE_GAIN = 0.005;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Guarded by this
+    private double limit;
+    private int samplesSinceChange;
+    private final Map<String, Latency> latencies = new HashMap<>();
+
+    VegasLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    // False when the call has to be rejected
+    boolean tryAcquire() {
+        int limitNow = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limitNow) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Ends a call that was acquired without using its latency, an error such as NOT_FOUND is answered
+    // without doing the work and says nothing about the queue
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    // Ends a call that was dropped, one that timed out or was refused further down, it lowers the limit right away
+    void releaseDropped() {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            limit = Math.max(minLimit, limit * 0.9);
+        }
+    }
+
+    // Ends a call that was served and adapts the limit to its latency
+    void release(String method, long rttNanos) {
+        int inFlightAtEnd = inFlight.getAndDecrement();
+        synchronized (this) {
+            Latency latency = latencies.computeIfAbsent(method, ignored -> new Latency(rttNanos));
+            latency.add(rttNanos);
+            // Like Vegas once per round trip, the limit moves once per limit's worth of calls, so the smoothed
+            // latency has caught up with the last change before the next one and the limit does not overshoot
+            if (++samplesSinceChange < limit) {
+                return;
+            }
+            samplesSinceChange = 0;
+
+            double queued = limit * (1 - latency.baseline / latency.smoothed);
+            double step = Math.log10(Math.max(10, limit));
+            if (queued <= 3 * step) {
+                // Only raise a limit the calls actually reach, an idle service would otherwise grow it without bound
+                if (inFlightAtEnd * 2 >= limit) {
+                    limit = Math.min(maxLimit, limit + step);
+                }
+            } else if (queued >= 6 * step) {
+                limit = Math.max(minLimit, limit - step);
+            }
+        }
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    // Latencies of one method, in nanoseconds
+    private static class Latency {
+
+        private double smoothed;
+        private double baseline;
+
+        Latency(long rttNanos) {
+            this.smoothed = rttNanos;
+            this.baseline = rttNanos;
+        }
+
+        void add(long rttNanos) {
+            smoothed += SMOOTHING * (rttNanos - smoothed);
+            // Stochastic percentile estimate: it settles where the smoothed latency is below it
+            // BASELINE_PERCENTILE of the time, and keeps following a latency that changed for good
+            if (smoothed < baseline) {
+                baseline *= 1 - BASELINE_GAIN * (1 - BASELINE_PERCENTILE);
+            } else {
+                baseline *= 1 + BASELINE_GAIN * BASELINE_PERCENTILE;
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.metrics;
+
+import com.google.protobuf.MessageLite;
+import io.grpc.*;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Records every gRPC call: latency by method and status code, message sizes and the Hibernate statements it ran.
+// Served with everything else on the /prometheus endpoint.
+@Singleton
+public class MetricsInterceptor implements ServerInterceptor {
+
+    @Inject
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> serverCall, Metadata headers, ServerCallHandler<ReqT, RespT> serverCallHandler) {
+        String method = serverCall.getMethodDescriptor().getFullMethodName();
+        LongAdder statements = new LongAdder();
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        ServerCall<ReqT, RespT> measuredCall = new ForwardingServerCall.SimpleForwardingServerCall<>(serverCall) {
+            @Override
+            public void sendMessage(RespT message) {
+                messageSize(method, "sent").record(serializedSize(message));
+                super.sendMessage(message);
+            }
+
+            @Override
+            public void close(Status status, Metadata trailers) {
+                sample.stop(Timer.builder("grpc.server.calls")
+                        .description("Latency of gRPC calls")
+                        .tag("method", method)
+                        .tag("status", status.getCode().name())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+                DistributionSummary.builder("grpc.server.statements")
+                        .description("SQL statements run by a gRPC call")
+                        .tag("method", method)
+                        .register(meterRegistry)
+                        .record(statements.sum());
+                super.close(status, trailers);
+            }
+        };
+
+        // The statement counter follows the call into every listener callback through the gRPC context
+        Context context = Context.current().withValue(RpcStatementCounter.STATEMENTS, statements);
+        ServerCall.Listener<ReqT> listener = Contexts.interceptCall(context, measuredCall, headers, serverCallHandler);
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(ReqT message) {
+                messageSize(method, "received").record(serializedSize(message));
+                super.onMessage(message);
+            }
+        };
+    }
+
+    private DistributionSummary messageSize(String method, String direction) {
+        return DistributionSummary.builder("grpc.server.message.size")
+                .description("Serialized size of gRPC messages")
+                .baseUnit("bytes")
+                .tag("method", method)
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    private static int serializedSize(Object message) {
+        return message instanceof MessageLite protobuf ? protobuf.getSerializedSize() : 0;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.metrics;
+
+import io.grpc.Context;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts the SQL statements Hibernate prepares for the gRPC call running on the current thread.
+// Created by Hibernate from hibernate.session_factory.statement_inspector, so it is not a bean.
+// Work a call hands to another pool, such as the bcrypt pool, runs without the call's context and is not counted.
+public class RpcStatementCounter implements StatementInspector {
+
+    static final Context.Key<LongAdder> STATEMENTS = Context.key("rpc-statements");
+
+    @Override
+    public String inspect(String sql) {
+        LongAdder statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.increment();
+        }
+        return sql;
+    }
+}
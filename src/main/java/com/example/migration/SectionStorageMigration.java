@@ -0,0 +1,126 @@
+package com.example.migration;
+
+import com.example.repository.SectionLayout;
+import com.example.templates.SectionTemplateMigration;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.transaction.annotation.Transactional;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+// Moves sections from the six per-type tables into the unified page_section table. A copied table is renamed to
+// <table>_migrated and kept for a rollback, it can be dropped by hand afterwards.
+@Singleton
+public class SectionStorageMigration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SectionStorageMigration.class);
+
+    // Key of the advisory lock that lets only one node at a time migrate, the others wait and then find nothing to do
+    private static final long MIGRATION_LOCK = 0x5EC7_1000L;
+
+    @Value("${sections.storage.migrate-legacy-tables:true}")
+    private boolean migrateLegacyTables;
+
+    @Inject
+    private EntityManager entityManager;
+
+    // Only present when enabled, it has to run after the legacy rows are copied
+    @Inject
+    @Nullable
+    private SectionTemplateMigration sectionTemplateMigration;
+
+    @EventListener
+    @Transactional
+    public void onStartup(StartupEvent event) {
+        // Held until the transaction ends, so the copy and the rename of a table are never seen half done
+        entityManager.createNativeQuery("SELECT 1 FROM pg_advisory_xact_lock(:key)")
+                .setParameter("key", MIGRATION_LOCK)
+                .getResultList();
+        ensurePrimaryKeyOrder();
+        if (migrateLegacyTables) {
+            for (SectionLayout layout : SectionLayout.ALL) {
+                if (tableExists(layout.legacyTable())) {
+                    copyLegacyTable(layout);
+                }
+            }
+        }
+        if (sectionTemplateMigration != null) {
+            sectionTemplateMigration.deduplicate();
+        }
+    }
+
+    // A page is read as the range of one user_id, which needs user_id to lead the primary key.
+    // hbm2ddl does not guarantee the column order of an embedded id.
+    private void ensurePrimaryKeyOrder() {
+        List<?> leading = entityManager.createNativeQuery("SELECT a.attname FROM pg_index i " +
+                        "JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = i.indkey[0] " +
+                        "WHERE i.indrelid = CAST('page_section' AS regclass) AND i.indisprimary")
+                .getResultList();
+        if (!leading.isEmpty() && "user_id".equals(String.valueOf(leading.get(0)))) {
+            return;
+        }
+        List<?> constraints = entityManager.createNativeQuery("SELECT conname FROM pg_constraint " +
+                        "WHERE conrelid = CAST('page_section' AS regclass) AND contype = 'p'")
+                .getResultList();
+        StringBuilder sql = new StringBuilder("ALTER TABLE page_section ");
+        if (!constraints.isEmpty()) {
+            sql.append("DROP CONSTRAINT ").append(constraints.get(0)).append(", ");
+        }
+        sql.append("ADD PRIMARY KEY (user_id, section_type)");
+        entityManager.createNativeQuery(sql.toString()).executeUpdate();
+        LOG.info("Recreated the primary key of page_section as (user_id, section_type)");
+    }
+
+    private void copyLegacyTable(SectionLayout layout) {
+        String table = layout.legacyTable();
+        // Only the variants stored for the user are copied, a null column keeps resolving to the template.
+        // ::jsonb works whether the column is still TEXT or already jsonb.
+        StringBuilder variants = new StringBuilder("'{}'::jsonb");
+        for (String variant : layout.variants()) {
+            if (!columnExists(table, variant)) {
+                continue;
+            }
+            variants.append(" || CASE WHEN ").append(variant).append(" IS NULL THEN '{}'::jsonb ELSE jsonb_build_object('")
+                    .append(variant).append("', ").append(variant).append("::jsonb) END");
+        }
+        // Tables created before the templates or the versioning have no such column
+        String templateVersion = columnExists(table, "template_version") ? "template_version" : "NULL";
+        String version = columnExists(table, "version") ? "COALESCE(version, 0)" : "0";
+        String active = !layout.hasActive() ? "NULL"
+                : columnExists(table, "active") ? "COALESCE(active, '" + layout.defaultActive() + "')"
+                : "'" + layout.defaultActive() + "'";
+        String sql = "INSERT INTO page_section (user_id, section_type, template_version, version, active, variants) " +
+                "SELECT user_id, '" + layout.type().name() + "', " + templateVersion + ", " + version + ", " +
+                active + ", " + variants +
+                " FROM " + table + " WHERE user_id IS NOT NULL " +
+                "ON CONFLICT (user_id, section_type) DO NOTHING";
+        int copied = entityManager.createNativeQuery(sql).executeUpdate();
+        entityManager.createNativeQuery("ALTER TABLE " + table + " RENAME TO " + table + "_migrated").executeUpdate();
+        LOG.info("Copied {} sections from {} to page_section, the old table is now {}_migrated", copied, table, table);
+    }
+
+    private boolean columnExists(String table, String column) {
+        return !entityManager.createNativeQuery(
+                        "SELECT 1 FROM information_schema.columns WHERE table_schema = current_schema() " +
+                                "AND table_name = :table AND column_name = :column")
+                .setParameter("table", table)
+                .setParameter("column", column)
+                .getResultList()
+                .isEmpty();
+    }
+
+    private boolean tableExists(String table) {
+        return !entityManager.createNativeQuery(
+                        "SELECT 1 FROM information_schema.tables WHERE table_schema = current_schema() AND table_name = :table")
+                .setParameter("table", table)
+                .getResultList()
+                .isEmpty();
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.patch;
+
+import com.example.JsonPatchOperation;
+import com.example.exceptions.InvalidPatchException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Applies RFC 6902 JSON patches to a section document, so clients send only the changed parts of a variant
+@Singleton
+public class JsonPatchApplier {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Returns the patched document, throws InvalidPatchException when an operation cannot be applied
+    public String apply(String document, List<JsonPatchOperation> operations) {
+        JsonNode root = parse(document.isEmpty() ? "{}" : document, "document");
+        for (JsonPatchOperation operation : operations) {
+            root = apply(root, operation);
+        }
+        try {
+            return objectMapper.writeValueAsString(root);
+        } catch (JsonProcessingException e) {
+            throw new InvalidPatchException("Cannot serialize patched document: " + e.getOriginalMessage());
+        }
+    }
+
+    private JsonNode apply(JsonNode root, JsonPatchOperation operation) {
+        List<String> path = parsePointer(operation.getPath());
+        switch (operation.getOp()) {
+            case "add":
+                return add(root, path, parse(operation.getValue(), "value"));
+            case "remove":
+                return remove(root, path);
+            case "replace":
+                if (path.isEmpty()) {
+                    return parse(operation.getValue(), "value");
+                }
+                return add(remove(root, path), path, parse(operation.getValue(), "value"));
+            case "move": {
+                List<String> from = parsePointer(operation.getFrom());
+                JsonNode value = get(root, from);
+                return add(remove(root, from), path, value);
+            }
+            case "copy":
+                return add(root, path, get(root, parsePointer(operation.getFrom())).deepCopy());
+            case "test":
+                if (!get(root, path).equals(parse(operation.getValue(), "value"))) {
+                    throw new InvalidPatchException("Test failed at " + operation.getPath());
+                }
+                return root;
+            default:
+                throw new InvalidPatchException("Unknown patch operation " + operation.getOp());
+        }
+    }
+
+    private JsonNode add(JsonNode root, List<String> path, JsonNode value) {
+        if (path.isEmpty()) {
+            return value;
+        }
+        JsonNode parent = get(root, path.subList(0, path.size() - 1));
+        String token = path.get(path.size() - 1);
+        if (parent instanceof ObjectNode object) {
+            object.set(token, value);
+        } else if (parent instanceof ArrayNode array) {
+            if (token.equals("-")) {
+                array.add(value);
+            } else {
+                int index = arrayIndex(token, array.size() + 1);
+                array.insert(index, value);
+            }
+        } else {
+            throw new InvalidPatchException("Cannot add to a value at " + toPointer(path));
+        }
+        return root;
+    }
+
+    private JsonNode remove(JsonNode root, List<String> path) {
+        if (path.isEmpty()) {
+            throw new InvalidPatchException("Cannot remove the whole document");
+        }
+        JsonNode parent = get(root, path.subList(0, path.size() - 1));
+        String token = path.get(path.size() - 1);
+        if (parent instanceof ObjectNode object) {
+            if (object.remove(token) == null) {
+                throw new InvalidPatchException("No value at " + toPointer(path));
+            }
+        } else if (parent instanceof ArrayNode array) {
+            array.remove(arrayIndex(token, array.size()));
+        } else {
+            throw new InvalidPatchException("No value at " + toPointer(path));
+        }
+        return root;
+    }
+
+    private JsonNode get(JsonNode root, List<String> path) {
+        JsonNode node = root;
+        for (String token : path) {
+            if (node instanceof ObjectNode) {
+                node = node.get(token);
+            } else if (node instanceof ArrayNode) {
+                node = node.get(arrayIndex(token, node.size()));
+            } else {
+                node = null;
+            }
+            if (node == null) {
+                throw new InvalidPatchException("No value at " + toPointer(path));
+            }
+        }
+        return node;
+    }
+
+    private static int arrayIndex(String token, int size) {
+        try {
+            int index = Integer.parseInt(token);
+            if (index < 0 || index >= size) {
+                throw new InvalidPatchException("Array index out of bounds: " + token);
+            }
+            return index;
+        } catch (NumberFormatException e) {
+            throw new InvalidPatchException("Invalid array index: " + token);
+        }
+    }
+
+    // RFC 6901 JSON pointer, "/props/style/color" -> [props, style, color]
+    private static List<String> parsePointer(String pointer) {
+        List<String> tokens = new ArrayList<>();
+        if (pointer.isEmpty()) {
+            return tokens;
+        }
+        if (!pointer.startsWith("/")) {
+            throw new InvalidPatchException("Invalid JSON pointer: " + pointer);
+        }
+        for (String token : pointer.substring(1).split("/", -1)) {
+            tokens.add(token.replace("~1", "/").replace("~0", "~"));
+        }
+        return tokens;
+    }
+
+    private static String toPointer(List<String> path) {
+        StringBuilder pointer = new StringBuilder();
+        for (String token : path) {
+            pointer.append('/').append(token.replace("~", "~0").replace("/", "~1"));
+        }
+        return pointer.toString();
+    }
+
+    private JsonNode parse(String json, String what) {
+        if (json.isEmpty()) {
+            throw new InvalidPatchException("Missing JSON " + what);
+        }
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new InvalidPatchException("Invalid JSON " + what + ": " + e.getOriginalMessage());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.replica;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.r2dbc.spi.Closeable;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// Read replica of the primary database, used for read-only transactions and section fetches.
+// Its pools are created here rather than as datasources.* entries, so JPA and the migrations never see it.
+// The replay lag is checked every check-interval; while it is above max-staleness, or the replica cannot be
+// reached, every read goes to the primary.
+@Singleton
+@Requires(property = "replica.enabled", value = "true")
+public class ReadReplica {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadReplica.class);
+
+    // No lag when the replica has replayed everything it received, pg_last_xact_replay_timestamp alone
+    // keeps growing while the primary is idle. Null when the server is not a standby.
+    private static final String LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    @Value("${replica.jdbc-url}")
+    private String jdbcUrl;
+
+    @Value("${replica.r2dbc-url}")
+    private String r2dbcUrl;
+
+    @Value("${replica.username}")
+    private String username;
+
+    @Value("${replica.password}")
+    private String password;
+
+    @Value("${replica.maximum-pool-size:10}")
+    private int maximumPoolSize;
+
+    @Value("${replica.max-staleness:5s}")
+    private Duration maxStaleness;
+
+    // Short, a replica that does not answer sends the reads to the primary instead of holding them
+    @Value("${replica.connection-timeout:1s}")
+    private Duration connectionTimeout;
+
+    @Value("${replica.validation-timeout:500ms}")
+    private Duration validationTimeout;
+
+    @Inject
+    private MeterRegistry meterRegistry;
+
+    private HikariDataSource dataSource;
+    private ConnectionFactory connectionFactory;
+
+    private volatile boolean fresh;
+    private volatile double lagSeconds = Double.NaN;
+
+    @PostConstruct
+    void open() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("replica");
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setReadOnly(true);
+        config.setConnectionTimeout(connectionTimeout.toMillis());
+        config.setValidationTimeout(validationTimeout.toMillis());
+        // A replica that is down must not keep the node from starting, reads use the primary meanwhile
+        config.setInitializationFailTimeout(-1);
+        dataSource = new HikariDataSource(config);
+
+        connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(r2dbcUrl).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .option(ConnectionFactoryOptions.CONNECT_TIMEOUT, connectionTimeout)
+                .build());
+
+        Gauge.builder("replica.lag", this, replica -> replica.lagSeconds)
+                .description("Replay lag of the read replica, NaN while it cannot be reached")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    // The first check runs right after startup on the scheduler, a replica that cannot be reached does not delay
+    // the startup. Reads go to the primary until it finds the replica fresh.
+    @Scheduled(fixedDelay = "${replica.check-interval:2s}", initialDelay = "0s")
+    void checkLag() {
+        boolean wasFresh = fresh;
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(LAG_QUERY)) {
+            result.next();
+            // Not a standby, e.g. a development setup pointing both at the same database
+            lagSeconds = result.getObject(1) == null ? 0 : result.getDouble(1);
+            fresh = lagSeconds * 1000 <= maxStaleness.toMillis();
+        } catch (SQLException e) {
+            lagSeconds = Double.NaN;
+            fresh = false;
+        }
+        if (wasFresh != fresh) {
+            LOG.info("Read replica {}, lag {}s", fresh ? "in use" : "bypassed, reads go to the primary", lagSeconds);
+        }
+    }
+
+    // True when reads may go to the replica on this thread
+    public boolean isAvailable() {
+        return fresh && FORCE_PRIMARY.get() == null;
+    }
+
+    // Runs the reads of the supplier on the primary, for a read that must see the latest committed data
+    public static <T> T onPrimary(Supplier<T> reads) {
+        if (FORCE_PRIMARY.get() != null) {
+            return reads.get();
+        }
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            FORCE_PRIMARY.remove();
+        }
+    }
+
+    HikariDataSource getDataSource() {
+        return dataSource;
+    }
+
+    public ConnectionFactory getConnectionFactory() {
+        return connectionFactory;
+    }
+
+    @PreDestroy
+    public void close() {
+        dataSource.close();
+        if (connectionFactory instanceof Closeable pool) {
+            Mono.from(pool.close()).block();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.replica;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.core.order.Ordered;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+
+// Puts the replica routing in front of the primary datasource
+@Singleton
+@Requires(property = "replica.enabled", value = "true")
+public class ReplicaRoutingConfigurer implements BeanCreatedEventListener<DataSource>, Ordered {
+
+    @Inject
+    private ReadReplica readReplica;
+
+    @Override
+    public DataSource onCreated(BeanCreatedEvent<DataSource> event) {
+        return new ReplicaRoutingDataSource(event.getBean(), readReplica);
+    }
+
+    // Outermost wrapper, the datasource it routes writes to is the one the other listeners built
+    @Override
+    public int getOrder() {
+        return LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.replica;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+// Routes read-only transactions to the replica. The transaction manager takes a connection before it marks it
+// read-only, so the connection handed out is a placeholder: it records the read-only, auto-commit and isolation
+// settings and only takes a real connection, from the replica or the primary, when the first statement needs it.
+class ReplicaRoutingDataSource implements DataSource {
+
+    private final DataSource primary;
+    private final ReadReplica readReplica;
+
+    ReplicaRoutingDataSource(DataSource primary, ReadReplica readReplica) {
+        this.primary = primary;
+        this.readReplica = readReplica;
+    }
+
+    @Override
+    public Connection getConnection() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new LazyConnection());
+    }
+
+    // Only used with explicit credentials, which are those of the primary
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    private final class LazyConnection implements InvocationHandler {
+
+        private Connection target;
+        private boolean readOnly;
+        private boolean autoCommit = true;
+        private Integer isolation;
+        private boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (target == null) {
+                switch (method.getName()) {
+                    case "setReadOnly":
+                        readOnly = (Boolean) args[0];
+                        return null;
+                    case "isReadOnly":
+                        return readOnly;
+                    case "setAutoCommit":
+                        autoCommit = (Boolean) args[0];
+                        return null;
+                    case "getAutoCommit":
+                        return autoCommit;
+                    case "setTransactionIsolation":
+                        isolation = (Integer) args[0];
+                        return null;
+                    case "commit":
+                    case "rollback":
+                        // Nothing ran yet
+                        return null;
+                    case "close":
+                        closed = true;
+                        return null;
+                    case "isClosed":
+                        return closed;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Unrouted connection (read-only " + readOnly + ")";
+                    default:
+                        target = connect();
+                }
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private Connection connect() throws SQLException {
+            Connection connection = null;
+            if (readOnly && readReplica.isAvailable()) {
+                try {
+                    connection = readReplica.getDataSource().getConnection();
+                } catch (SQLException e) {
+                    // Lost since the last lag check, the primary answers this one
+                }
+            }
+            if (connection == null) {
+                connection = primary.getConnection();
+                connection.setReadOnly(readOnly);
+            }
+            connection.setAutoCommit(autoCommit);
+            if (isolation != null) {
+                connection.setTransactionIsolation(isolation);
+            }
+            return connection;
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        primary.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        primary.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return primary.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return primary.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) throws SQLException {
+        return type.isInstance(primary) ? type.cast(primary) : primary.unwrap(type);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) throws SQLException {
+        return type.isInstance(primary) || primary.isWrapperFor(type);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.repository;
+
+import com.example.entity.PageSnapshot;
+import io.micronaut.data.annotation.Repository;
+import io.micronaut.data.jpa.repository.JpaRepository;
+
+@Repository
+public interface PageSnapshotRepository extends JpaRepository<PageSnapshot, Long> {
+}
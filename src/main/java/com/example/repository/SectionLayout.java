@@ -0,0 +1,32 @@
+package com.example.repository;
+
+import com.example.SectionType;
+
+import java.util.List;
+
+// Variants and defaults of every section type. legacyTable is the per-type table the sections were stored in
+// before they moved to the unified page_section table, only the storage migration still reads it.
+public record SectionLayout(SectionType type, String legacyTable, List<String> variants, String defaultActive) {
+
+    public static final List<SectionLayout> ALL = List.of(
+            new SectionLayout(SectionType.HERO, "hero_section", List.of("split", "centered"), "Split"),
+            new SectionLayout(SectionType.NAV, "nav_section", List.of("basic", "centered"), "Basic"),
+            new SectionLayout(SectionType.SLIDER, "slider_section", List.of("basic"), null),
+            new SectionLayout(SectionType.CONTACT, "contact_section", List.of("tile", "centered"), "Centered"),
+            new SectionLayout(SectionType.DETAIL, "detail_section", List.of("split", "tile"), "Tile"),
+            new SectionLayout(SectionType.FOOTER, "footer_section", List.of("basic", "centered"), "Centered"));
+
+    // The slider has no active variant to choose
+    public boolean hasActive() {
+        return defaultActive != null;
+    }
+
+    public static SectionLayout of(SectionType type) {
+        for (SectionLayout layout : ALL) {
+            if (layout.type() == type) {
+                return layout;
+            }
+        }
+        throw new IllegalArgumentException("Unknown section type " + type);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.repository;
+
+import com.example.entity.Section;
+import com.example.entity.SectionId;
+import com.example.replica.ReadReplica;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.context.annotation.Requires;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Row;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Mono;
+
+// Non-blocking reads of page_section over R2DBC, for section fetches that change nothing.
+// A read holds neither a thread nor a JDBC connection while the query runs, only an R2DBC connection of its own pool.
+// The returned sections are detached, they are only used to build responses.
+@Singleton
+@Requires(property = "sections.reactive-reads.enabled", value = "true")
+public class SectionReadRepository {
+
+    private static final String FIND_BY_ID = "SELECT active, variants::text AS variants, version, template_version " +
+            "FROM page_section WHERE user_id = $1 AND section_type = $2";
+
+    @Inject
+    private ConnectionFactory connectionFactory;
+
+    // Only present with replica.enabled
+    @Inject
+    @Nullable
+    private ReadReplica readReplica;
+
+    // A read section, from the replica or the primary. A replica read may lag behind a change whose invalidation
+    // was already handled, so only a read from the primary may be cached.
+    public record SectionRead(Section section, boolean fromPrimary) {
+    }
+
+    // Empty when the section was never created. Read from the replica when it is fresh enough; a section the
+    // replica does not have yet, or has in a version older than minVersion, is read from the primary.
+    public Mono<SectionRead> findById(SectionId id, long minVersion) {
+        Mono<SectionRead> primary = Mono.defer(() -> find(connectionFactory, id).map(section -> new SectionRead(section, true)));
+        if (readReplica == null || !readReplica.isAvailable()) {
+            return primary;
+        }
+        return find(readReplica.getConnectionFactory(), id)
+                .filter(section -> section.getVersion() >= minVersion)
+                .map(section -> new SectionRead(section, false))
+                .onErrorResume(e -> Mono.empty())
+                .switchIfEmpty(primary);
+    }
+
+    private Mono<Section> find(ConnectionFactory connectionFactory, SectionId id) {
+        return Mono.usingWhen(
+                Mono.from(connectionFactory.create()),
+                connection -> Mono.from(connection.createStatement(FIND_BY_ID)
+                                .bind(0, id.getUserId())
+                                .bind(1, id.getSectionType().name())
+                                .execute())
+                        .flatMap(result -> Mono.from(result.map((row, metadata) -> toSection(id, row)))),
+                Connection::close);
+    }
+
+    private static Section toSection(SectionId id, Row row) {
+        Section section = new Section();
+        section.setId(id);
+        section.setActive(row.get("active", String.class));
+        section.setVariants(row.get("variants", String.class));
+        section.setVersion(row.get("version", Long.class));
+        section.setTemplateVersion(row.get("template_version", Integer.class));
+        return section;
+    }
+}
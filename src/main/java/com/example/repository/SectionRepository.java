@@ -0,0 +1,15 @@
+package com.example.repository;
+
+import com.example.entity.Section;
+import com.example.entity.SectionId;
+import io.micronaut.data.annotation.Repository;
+import io.micronaut.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+@Repository
+public interface SectionRepository extends JpaRepository<Section, SectionId> {
+
+    // Every section of a page, read with one range scan of the primary key
+    List<Section> findByIdUserId(Long userId);
+}
@@ -0,0 +1,15 @@
+package com.example.repository;
+
+import com.example.entity.SectionTemplate;
+import io.micronaut.data.annotation.Repository;
+import io.micronaut.data.repository.CrudRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SectionTemplateRepository extends CrudRepository<SectionTemplate, Long> {
+    List<SectionTemplate> findByVersion(Integer version);
+
+    Optional<SectionTemplate> findBySectionTypeAndVariantAndVersion(String sectionType, String variant, Integer version);
+}
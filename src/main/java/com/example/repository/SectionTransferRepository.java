@@ -0,0 +1,104 @@
+package com.example.repository;
+
+import com.example.SectionRecord;
+import com.example.SectionType;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Plain JDBC access for the bulk export and import, neither goes through the entities or the persistence context
+@Singleton
+public class SectionTransferRepository {
+
+    private static final String EXPORT_QUERY = "SELECT user_id, section_type, template_version, active, variants::text AS variants " +
+            "FROM page_section ORDER BY user_id, section_type";
+
+    // INSERT ... SELECT so a record of a missing user writes nothing instead of failing the whole batch
+    private static final String IMPORT_QUERY = "INSERT INTO page_section " +
+            "(user_id, section_type, template_version, active, variants, version) " +
+            "SELECT ?, ?, ?, ?, CAST(? AS jsonb), 0 " +
+            "WHERE EXISTS (SELECT 1 FROM user_entity WHERE user_id = ?) " +
+            "ON CONFLICT (user_id, section_type) DO UPDATE SET " +
+            "template_version = EXCLUDED.template_version, active = EXCLUDED.active, variants = EXCLUDED.variants, " +
+            // Bumped like a JPA update, so clients holding the old version see the import as a change
+            "version = page_section.version + 1";
+
+    @Value("${sections.transfer.fetch-size:1000}")
+    private int fetchSize;
+
+    @Inject
+    private DataSource dataSource;
+
+    // Streams every section to the consumer. Postgres only uses a cursor outside autocommit,
+    // so at most fetchSize rows are held in memory at a time.
+    public void exportSections(Consumer<SectionRecord> consumer) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(EXPORT_QUERY)) {
+                statement.setFetchSize(fetchSize);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        consumer.accept(toRecord(resultSet));
+                    }
+                }
+                connection.commit();
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private static SectionRecord toRecord(ResultSet resultSet) throws SQLException {
+        SectionRecord.Builder record = SectionRecord.newBuilder()
+                .setUserId(resultSet.getLong("user_id"))
+                .setType(SectionType.valueOf(resultSet.getString("section_type")))
+                .setTemplateVersion(resultSet.getInt("template_version"))
+                .putAllVariants(SectionVariants.fromJson(resultSet.getString("variants")));
+        String active = resultSet.getString("active");
+        if (active != null) {
+            record.setActive(active);
+        }
+        return record.build();
+    }
+
+    // Inserts or replaces the sections in a single batch and transaction.
+    // Returns how many were written, records of unknown users are left out.
+    public int importSections(List<SectionRecord> records) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(IMPORT_QUERY)) {
+                for (SectionRecord record : records) {
+                    statement.setLong(1, record.getUserId());
+                    statement.setString(2, record.getType().name());
+                    if (record.getTemplateVersion() == 0) {
+                        statement.setNull(3, Types.INTEGER);
+                    } else {
+                        statement.setInt(3, record.getTemplateVersion());
+                    }
+                    statement.setString(4, record.getActive().isEmpty() ? null : record.getActive());
+                    statement.setString(5, SectionVariants.toJson(record.getVariantsMap()));
+                    statement.setLong(6, record.getUserId());
+                    statement.addBatch();
+                }
+                int written = 0;
+                for (int count : statement.executeBatch()) {
+                    written += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+                }
+                connection.commit();
+                return written;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+}
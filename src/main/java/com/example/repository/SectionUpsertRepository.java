@@ -0,0 +1,62 @@
+package com.example.repository;
+
+import com.example.SectionType;
+import com.example.entity.Section;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import jakarta.persistence.EntityManager;
+
+import java.util.List;
+import java.util.Optional;
+
+// Get-or-create and field merge of a section in a single INSERT ... ON CONFLICT statement, without loading the user.
+// Unlike a find followed by a save, two concurrent first requests cannot both try to insert the section.
+@Singleton
+public class SectionUpsertRepository {
+
+    // Empty parameters keep the stored value, or leave a new section on its default.
+    // Changed variants are merged into the stored ones with jsonb ||, the others are kept.
+    private static final String UPSERT_QUERY = "INSERT INTO page_section AS s " +
+            "(user_id, section_type, template_version, version, active, variants) " +
+            "SELECT :userId, :type, :templateVersion, 0, COALESCE(NULLIF(:active, ''), NULLIF(:defaultActive, '')), " +
+            "CAST(:variants AS jsonb) " +
+            "WHERE EXISTS (SELECT 1 FROM user_entity WHERE user_id = :userId) " +
+            "ON CONFLICT (user_id, section_type) DO UPDATE SET " +
+            "active = COALESCE(NULLIF(:active, ''), s.active), " +
+            "variants = s.variants || CAST(:variants AS jsonb), " +
+            // Same as a JPA update of a versioned entity
+            "version = s.version + 1 " +
+            "WHERE (:expectedVersion < 0 OR s.version = :expectedVersion) " +
+            "AND (s.active IS DISTINCT FROM COALESCE(NULLIF(:active, ''), s.active) " +
+            "OR s.variants || CAST(:variants AS jsonb) IS DISTINCT FROM s.variants) " +
+            "RETURNING *";
+
+    @Inject
+    private EntityManager entityManager;
+
+    // Inserts the section with the given values, or merges the non-empty ones into the stored section.
+    // Returns the written section, empty when nothing was written: the user does not exist,
+    // the stored section already has these values or its version differs from the expected one (-1 for any).
+    @SuppressWarnings("unchecked")
+    public Optional<Section> upsert(SectionType type, Long userId, SectionValues values) {
+        List<Section> rows = entityManager.createNativeQuery(UPSERT_QUERY, Section.class)
+                .setParameter("userId", userId)
+                .setParameter("type", type.name())
+                .setParameter("templateVersion", values.templateVersion())
+                .setParameter("active", values.active())
+                .setParameter("defaultActive", values.defaultActive())
+                .setParameter("variants", values.variants())
+                .setParameter("expectedVersion", values.expectedVersion())
+                .getResultList();
+        return rows.stream().findFirst();
+    }
+
+    // Strings are empty rather than null, an empty proto3 field means the request does not change it.
+    // variants is a JSON object of the changed variant documents, "{}" when there are none.
+    public record SectionValues(String active,
+                                String variants,
+                                long expectedVersion,
+                                int templateVersion,
+                                String defaultActive) {
+    }
+}
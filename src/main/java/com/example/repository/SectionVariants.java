@@ -0,0 +1,51 @@
+package com.example.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Converts between the variants column, one JSON object holding every changed variant document,
+// and the variant documents as the RPCs carry them, one JSON string per variant
+public final class SectionVariants {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private SectionVariants() {
+    }
+
+    // Throws IllegalArgumentException when a document is not valid JSON
+    public static String toJson(Map<String, String> variants) {
+        ObjectNode object = OBJECT_MAPPER.createObjectNode();
+        for (Map.Entry<String, String> variant : variants.entrySet()) {
+            try {
+                object.set(variant.getKey(), OBJECT_MAPPER.readTree(variant.getValue()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Invalid JSON in variant " + variant.getKey() + ": " + e.getOriginalMessage());
+            }
+        }
+        return object.toString();
+    }
+
+    public static Map<String, String> fromJson(String json) {
+        Map<String, String> variants = new LinkedHashMap<>();
+        if (json == null || json.isEmpty()) {
+            return variants;
+        }
+        try {
+            Iterator<Map.Entry<String, JsonNode>> fields = OBJECT_MAPPER.readTree(json).fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                variants.put(field.getKey(), field.getValue().toString());
+            }
+        } catch (JsonProcessingException e) {
+            // Written by the database as jsonb, so it is always valid
+            throw new IllegalStateException("Invalid variants column: " + e.getOriginalMessage(), e);
+        }
+        return variants;
+    }
+}
@@ -1,12 +1,20 @@
 package com.example.repository;
 
 import com.example.entity.UserEntity;
+import io.micronaut.data.annotation.Query;
 import io.micronaut.data.annotation.Repository;
 import io.micronaut.data.jpa.repository.JpaRepository;
+import io.micronaut.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity,Long> {
+    // Read-only, so it is served by the read replica when one is configured
+    @Transactional(readOnly = true)
     Optional<UserEntity> findByUserName(String username);
+
+    @Transactional
+    @Query("UPDATE UserEntity u SET u.password = :password WHERE u.userId = :userId")
+    void updatePassword(Long userId, String password);
 }
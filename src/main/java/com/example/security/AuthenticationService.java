@@ -2,44 +2,89 @@ package com.example.security;
 
 import com.example.LoginRequest;
 import com.example.entity.UserEntity;
+import com.example.replica.ReadReplica;
 import com.example.repository.UserRepository;
+import com.example.timing.ServerTiming;
+import io.micronaut.core.annotation.Nullable;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @Singleton
 public class AuthenticationService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(AuthenticationService.class);
+
     @Inject
     private BcryptEncoderService bcryptEncoderService;
 
     @Inject
     private UserRepository userRepository;
 
-    // Return UserEntity on successful authentication, null otherwise
-    public UserEntity authenticateUser(LoginRequest request) {
+    // Only present with replica.enabled
+    @Inject
+    @Nullable
+    private ReadReplica readReplica;
+
+    // Completes with the UserEntity on successful authentication, null otherwise.
+    // The password check runs on the bcrypt pool, a saturated pool throws RejectedExecutionException right away.
+    public CompletableFuture<UserEntity> authenticateUser(LoginRequest request) {
         try {
-            Optional<UserEntity> userOpt = userRepository.findByUserName(request.getUserName());
+            Optional<UserEntity> userOpt;
+            try (ServerTiming.Phase ignored = ServerTiming.start("user-lookup")) {
+                userOpt = userRepository.findByUserName(request.getUserName());
+                if (userOpt.isEmpty() && readReplica != null) {
+                    // A user registered moments ago may not have reached the replica yet
+                    userOpt = ReadReplica.onPrimary(() -> userRepository.findByUserName(request.getUserName()));
+                }
+            }
 
             if (userOpt.isPresent()) {
                 UserEntity user = userOpt.get();
 
-                // Verify the password
-                if (bcryptEncoderService.verifyPassword(request.getPassword(), user.getPassword())) {
-                    // Authentication successful, return the user entity
-                    return user;
-                } else {
-                    // Password verification failed
-                    return null;
-                }
+                // Verify the password, authentication is successful when it matches.
+                // The bcrypt phase includes the wait in the pool queue.
+                ServerTiming.Phase bcrypt = ServerTiming.start("bcrypt");
+                return bcryptEncoderService.verifyPasswordAsync(request.getPassword(), user.getPassword())
+                        .thenApply(matches -> {
+                            bcrypt.close();
+                            if (!matches) {
+                                return null;
+                            }
+                            rehashIfNeeded(user, request.getPassword());
+                            return user;
+                        });
             } else {
                 // User not found
-                return null;
+                return CompletableFuture.completedFuture(null);
             }
+        } catch (RejectedExecutionException e) {
+            throw e;
         } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+            LOG.error("Failed to authenticate user {}", request.getUserName(), e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    // Upgrades a hash made with an older cost in the background, the login itself does not wait for it
+    private void rehashIfNeeded(UserEntity user, String plainTextPassword) {
+        if (!bcryptEncoderService.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            bcryptEncoderService.hashPasswordAsync(plainTextPassword)
+                    .thenAccept(hashedPassword -> userRepository.updatePassword(user.getUserId(), hashedPassword))
+                    .exceptionally(e -> {
+                        LOG.warn("Failed to rehash the password of user {}", user.getUserId(), e);
+                        return null;
+                    });
+        } catch (RejectedExecutionException e) {
+            // The pool is busy, the hash is upgraded on a later login
         }
     }
 }
@@ -1,16 +1,101 @@
 package com.example.security;
 
+import io.micronaut.context.annotation.Value;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 @Singleton
 public class BcryptEncoderService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BcryptEncoderService.class);
+
+    @Inject
+    private BcryptExecutor bcryptExecutor;
+
+    // Fixed cost for every node, 0 measures this node at startup instead
+    @Value("${bcrypt.cost:0}")
+    private int configuredCost;
+
+    @Value("${bcrypt.target-latency:250ms}")
+    private Duration targetLatency;
+
+    @Value("${bcrypt.min-cost:10}")
+    private int minCost;
+
+    @Value("${bcrypt.max-cost:16}")
+    private int maxCost;
+
+    private volatile int cost = 10;
+
+    // Picks the highest cost whose hash time stays within the target latency on this hardware
+    @PostConstruct
+    void calibrate() {
+        if (configuredCost > 0) {
+            cost = configuredCost;
+            return;
+        }
+        // Warm up the JIT so the first measurement is not inflated
+        BCrypt.hashpw("calibration", BCrypt.gensalt(4));
+
+        long targetMillis = targetLatency.toMillis();
+        int chosenCost = minCost;
+        for (int candidate = minCost; candidate <= maxCost; candidate++) {
+            long elapsedMillis = measureHashMillis(candidate);
+            if (elapsedMillis > targetMillis) {
+                break;
+            }
+            chosenCost = candidate;
+            // Every cost step doubles the work, stop before trying one that is bound to miss the target
+            if (elapsedMillis * 2 > targetMillis) {
+                break;
+            }
+        }
+        cost = chosenCost;
+        LOG.info("Bcrypt cost calibrated to {} for a target latency of {}ms", cost, targetMillis);
+    }
+
+    private static long measureHashMillis(int candidateCost) {
+        long start = System.nanoTime();
+        BCrypt.hashpw("calibration", BCrypt.gensalt(candidateCost));
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
     public  String hashPassword(String plainTextPassword){
-        return   BCrypt.hashpw(plainTextPassword, BCrypt.gensalt());
+        return   BCrypt.hashpw(plainTextPassword, BCrypt.gensalt(cost));
     }
     public boolean verifyPassword(String plainTextPassword, String hashedPassword){
         return BCrypt.checkpw(plainTextPassword, hashedPassword);
     }
+
+    // Only hashes weaker than this node's cost are upgraded, downgrading would make
+    // differently sized nodes rehash the same password back and forth
+    public boolean needsRehash(String hashedPassword){
+        try {
+            // Hashes look like $2a$10$..., the two digits after the version are the cost
+            return Integer.parseInt(hashedPassword.substring(4, 6)) < cost;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    // Same as above but on the bcrypt pool, throws RejectedExecutionException when the pool is saturated
+    public CompletableFuture<String> hashPasswordAsync(String plainTextPassword){
+        return bcryptExecutor.submit(() -> hashPassword(plainTextPassword));
+    }
+    public CompletableFuture<Boolean> verifyPasswordAsync(String plainTextPassword, String hashedPassword){
+        return bcryptExecutor.submit(() -> verifyPassword(plainTextPassword, hashedPassword));
+    }
 }
 
-//BCrypt hashing algorithm.
\ No newline at end of file
+//BCrypt hashing algorithm.
@@ -0,0 +1,125 @@
+package com.example.security;
+
+import com.example.execution.ExecutionGroups;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Runs bcrypt work on its own bounded pool so a burst of logins cannot take the gRPC worker threads.
+// When the queue is full, submit fails immediately with a RejectedExecutionException.
+@Singleton
+public class BcryptExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BcryptExecutor.class);
+
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder hashCount = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final Timer workTimer;
+
+    public BcryptExecutor(@Value("${bcrypt.pool.size:0}") int poolSize,
+                          @Value("${bcrypt.pool.queue-capacity:64}") int queueCapacity,
+                          MeterRegistry meterRegistry) {
+        // Bcrypt is pure CPU work, one thread per core unless configured otherwise
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.workTimer = Timer.builder("bcrypt.work")
+                .description("Time of a bcrypt hash or check on the bcrypt pool")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("bcrypt.pool.queued", this, BcryptExecutor::getQueueDepth).register(meterRegistry);
+        Gauge.builder("bcrypt.pool.active", this, BcryptExecutor::getActiveCount).register(meterRegistry);
+        Gauge.builder("bcrypt.pool.size", this, BcryptExecutor::getPoolSize).register(meterRegistry);
+        FunctionCounter.builder("bcrypt.pool.rejected", this, BcryptExecutor::getRejectedCount).register(meterRegistry);
+    }
+
+    // The work and the callbacks it completes run in the execution group of the caller, so a registration saved
+    // from a callback takes its connection from the group's slice
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(() -> timed(work), task -> executor.execute(ExecutionGroups.propagate(task)));
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            throw e;
+        }
+    }
+
+    private <T> T timed(Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            hashCount.increment();
+            hashNanos.add(elapsed);
+            maxHashNanos.accumulateAndGet(elapsed, Math::max);
+            workTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public long getHashCount() {
+        return hashCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public double getAverageHashMillis() {
+        long count = hashCount.sum();
+        return count == 0 ? 0 : hashNanos.sum() / (count * 1_000_000.0);
+    }
+
+    public double getMaxHashMillis() {
+        return maxHashNanos.get() / 1_000_000.0;
+    }
+
+    @Scheduled(fixedDelay = "${bcrypt.pool.stats-interval:5m}", initialDelay = "${bcrypt.pool.stats-interval:5m}")
+    public void logStats() {
+        LOG.info("Bcrypt pool: size={}, active={}, queued={}, hashes={}, rejected={}, averageHash={}ms, maxHash={}ms",
+                getPoolSize(), getActiveCount(), getQueueDepth(), getHashCount(), getRejectedCount(),
+                getAverageHashMillis(), getMaxHashMillis());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
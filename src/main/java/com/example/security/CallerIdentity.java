@@ -0,0 +1,25 @@
+package com.example.security;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+
+// The user whose access token authenticated the current call, put into the call's context by MessageServiceInterceptor.
+// A token only gives access to the sections and page of the user it was issued to.
+public final class CallerIdentity {
+
+    private CallerIdentity() {
+        throw new AssertionError();
+    }
+
+    // False unless the current call was authenticated as the given user
+    public static boolean is(long userId) {
+        Long caller = Constants.USER_ID_CONTEXT_KEY.get();
+        return caller != null && caller == userId;
+    }
+
+    public static StatusRuntimeException denied(long userId) {
+        return Status.PERMISSION_DENIED
+                .withDescription("Access token does not belong to user " + userId)
+                .asRuntimeException();
+    }
+}
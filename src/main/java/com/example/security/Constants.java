@@ -11,6 +11,9 @@ public class Constants {
     public static final String BEARER_TYPE = "Bearer";
     public static final io.grpc.Metadata.Key<String> AUTHORIZATION_METADATA_KEY = Metadata.Key.of("Authorization", ASCII_STRING_MARSHALLER);
     public static final Context.Key<String> CLIENT_ID_CONTEXT_KEY = Context.key("clientId");
+    // Id of the user the call's access token was issued to, see CallerIdentity
+    public static final Context.Key<Long> USER_ID_CONTEXT_KEY = Context.key("userId");
+    public static final String USER_ID_CLAIM = "userId";
 
     private Constants() {
         throw new AssertionError();
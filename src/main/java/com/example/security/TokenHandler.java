@@ -1,19 +1,27 @@
 package com.example.security;
 
 import com.example.LoginRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 
 @Singleton
 public class TokenHandler {
-    public String generateAccessToken(LoginRequest request) {
-        return Jwts.builder()
+
+    @Inject
+    private MeterRegistry meterRegistry;
+
+    // The user id claim ties the token to the user's own sections and page
+    public String generateAccessToken(LoginRequest request, Long userId) {
+        return meterRegistry.timer("jwt.generate").record(() -> Jwts.builder()
                 .setSubject(request.getUserName())
                 .claim("userName", request.getUserName())
+                .claim(Constants.USER_ID_CLAIM, userId)
 //                from Constant.java for signing the key.
                 .signWith(SignatureAlgorithm.HS256, Constants.JWT_SIGNING_KEY)
-                .compact();
+                .compact());
 
 
     }
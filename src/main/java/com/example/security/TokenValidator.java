@@ -4,12 +4,20 @@ import com.example.exceptions.InvalidTokenException;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
 @Singleton
 public class TokenValidator {
 
+    @Inject
+    private MeterRegistry meterRegistry;
+
     public Claims validateToken(String token, String jwtSigningKey){
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "valid";
         try {
             Claims claims =  Jwts.parser()
                     .setSigningKey(jwtSigningKey)
@@ -18,8 +26,10 @@ public class TokenValidator {
             return claims;
         } catch (JwtException | IllegalArgumentException e) {
             // The token is invalid or expired
-            System.out.println(token);
+            outcome = "invalid";
             throw new InvalidTokenException("Invalid or Expired Token.");
+        } finally {
+            sample.stop(meterRegistry.timer("jwt.validate", "outcome", outcome));
         }
     }
 }
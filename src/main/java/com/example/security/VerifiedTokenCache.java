@@ -0,0 +1,89 @@
+package com.example.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.jsonwebtoken.Claims;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Date;
+
+// Remembers tokens whose signature was already verified, so a session's repeated token is parsed only once
+@Singleton
+public class VerifiedTokenCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+    @Inject
+    private TokenValidator tokenValidator;
+
+    private final Cache<String, Claims> cache;
+
+    public VerifiedTokenCache(@Value("${security.token-cache.maximum-size:100000}") long maximumSize,
+                              @Value("${security.token-cache.max-ttl:15m}") Duration maxTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ClaimsExpiry(maxTtl))
+                .recordStats()
+                .build();
+    }
+
+    // Only a miss pays for the parse and signature check, its time is recorded as the cache load penalty.
+    // Invalid tokens are never cached, the InvalidTokenException of the validator is passed through.
+    public Claims validate(String token) {
+        return cache.get(token, key -> tokenValidator.validateToken(key, Constants.JWT_SIGNING_KEY));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Scheduled(fixedDelay = "${security.token-cache.stats-interval:5m}", initialDelay = "${security.token-cache.stats-interval:5m}")
+    public void logStats() {
+        CacheStats stats = cache.stats();
+        LOG.info("Token cache: size={}, hits={}, misses={}, evictions={}, averageMissCost={}ms",
+                cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                stats.averageLoadPenalty() / 1_000_000.0);
+    }
+
+    // A token is kept until it expires, but never longer than the configured maximum
+    private static final class ClaimsExpiry implements Expiry<String, Claims> {
+
+        private final long maxTtlNanos;
+
+        private ClaimsExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxTtlNanos;
+            }
+            long remainingNanos = Duration.ofMillis(expiration.getTime() - System.currentTimeMillis()).toNanos();
+            return Math.max(0, Math.min(maxTtlNanos, remainingNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
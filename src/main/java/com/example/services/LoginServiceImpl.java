@@ -8,14 +8,22 @@ import com.example.UserLoginGrpc;
 import com.example.entity.UserEntity;
 import com.example.security.AuthenticationService;
 import com.example.security.TokenHandler;
+import com.example.timing.ServerTiming;
+import io.grpc.Context;
 import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import io.micronaut.grpc.annotation.GrpcService;
 import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.RejectedExecutionException;
 
 @GrpcService
 public class LoginServiceImpl extends UserLoginGrpc.UserLoginImplBase {
 
+    private static final Logger LOG = LoggerFactory.getLogger(LoginServiceImpl.class);
+
     @Inject
     private TokenHandler tokenHandler;
 
@@ -25,15 +33,44 @@ public class LoginServiceImpl extends UserLoginGrpc.UserLoginImplBase {
     @Override
     public void login(LoginRequest request, StreamObserver<LoginReply> responseObserver) {
         try {
-            // Authenticate the user
-            UserEntity authenticatedUser = authenticationService.authenticateUser(request);
+            // Authenticate the user, the password check completes on the bcrypt pool
+            // The callback runs on the bcrypt pool, it keeps the call's context so its phases are still timed
+            Context callContext = Context.current();
+            authenticationService.authenticateUser(request).whenComplete((authenticatedUser, error) -> callContext.run(() -> {
+                if (error != null) {
+                    LOG.warn("Login failed", error);
+                    responseObserver.onError(Status.INTERNAL
+                            .withDescription("Login failed")
+                            .asRuntimeException());
+                    return;
+                }
+                completeLogin(request, authenticatedUser, responseObserver);
+            }));
+        } catch (RejectedExecutionException e) {
+            // The bcrypt pool is saturated, reject right away instead of queueing more work
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                    .withDescription("Too many concurrent logins, try again later")
+                    .asRuntimeException());
+        } catch (Exception e) {
+            // Handle other exceptions
+            LOG.warn("Login failed", e);
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription("Login failed")
+                    .asRuntimeException());
+        }
+    }
 
+    private void completeLogin(LoginRequest request, UserEntity authenticatedUser, StreamObserver<LoginReply> responseObserver) {
+        try {
             if (authenticatedUser != null) {
                 // Extract userId from the authenticated user
                 Long userId = authenticatedUser.getUserId();
 
                 // Generate an access token
-                String token = tokenHandler.generateAccessToken(request);
+                String token;
+                try (ServerTiming.Phase ignored = ServerTiming.start("jwt")) {
+                    token = tokenHandler.generateAccessToken(request, userId);
+                }
 
                 // Build the response
                 LoginReply loginReply = LoginReply.newBuilder()
@@ -45,7 +82,7 @@ public class LoginServiceImpl extends UserLoginGrpc.UserLoginImplBase {
                 // Send the response to the client
                 responseObserver.onNext(loginReply);
                 responseObserver.onCompleted();
-                System.out.println("Login completed for userId: " + userId);
+                LOG.debug("Login completed for userId: {}", userId);
             } else {
                 // Authentication failed
                 responseObserver.onError(Status.INTERNAL
@@ -54,7 +91,7 @@ public class LoginServiceImpl extends UserLoginGrpc.UserLoginImplBase {
             }
         } catch (Exception e) {
             // Handle other exceptions
-            System.out.println(e);
+            LOG.warn("Login failed", e);
             responseObserver.onError(Status.INTERNAL
                     .withDescription("Login failed")
                     .asRuntimeException());
@@ -0,0 +1,184 @@
+package com.example.services;
+
+import com.example.*;
+import com.example.cache.SectionCache;
+import com.example.events.SectionChangeBroker;
+import com.example.repository.UserRepository;
+import com.example.security.CallerIdentity;
+import com.example.snapshots.PagePublisher;
+import com.google.protobuf.Message;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import io.micronaut.grpc.annotation.GrpcService;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.util.Map;
+
+@Singleton
+@GrpcService
+public class PageServiceImpl extends PageServiceGrpc.PageServiceImplBase {
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Inject
+    private SectionService sectionService;
+
+    @Inject
+    private SectionChangeBroker sectionChangeBroker;
+
+    @Inject
+    private SectionCache sectionCache;
+
+    @Inject
+    private PagePublisher pagePublisher;
+
+    @Override
+    public void getPage(PageRequest request, StreamObserver<PageResponse> responseObserver) {
+        if (!CallerIdentity.is(request.getId())) {
+            responseObserver.onError(CallerIdentity.denied(request.getId()));
+            return;
+        }
+        try {
+            // A page whose sections are all cached is answered without touching the database
+            PageResponse cachedResponse = getCachedPage(request.getId());
+            if (cachedResponse != null) {
+                responseObserver.onNext(cachedResponse);
+                responseObserver.onCompleted();
+                return;
+            }
+
+            // Every section of the page is one range of the page_section primary key
+            Map<SectionType, Message> sections = sectionService.getSections(request.getId()).orElse(null);
+
+            if (sections == null) {
+                // Handle the case when the user is not found
+                responseObserver.onError(Status.NOT_FOUND
+                        .withDescription("User not found")
+                        .asRuntimeException());
+                return;
+            }
+
+            PageResponse response = PageResponse.newBuilder()
+                    .setHero((HeroSectionResponse) sections.get(SectionType.HERO))
+                    .setNav((NavResponse) sections.get(SectionType.NAV))
+                    .setSlider((SliderResponse) sections.get(SectionType.SLIDER))
+                    .setContact((ContactResponse) sections.get(SectionType.CONTACT))
+                    .setDetail((DetailResponse) sections.get(SectionType.DETAIL))
+                    .setFooter((FooterResponse) sections.get(SectionType.FOOTER))
+                    .build();
+
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            // Handle exceptions and provide appropriate gRPC error status
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+        }
+    }
+
+    @Override
+    public void watchSections(WatchSectionsRequest request, StreamObserver<SectionChange> responseObserver) {
+        if (!CallerIdentity.is(request.getId())) {
+            responseObserver.onError(CallerIdentity.denied(request.getId()));
+            return;
+        }
+        try {
+            if (!userRepository.existsById(request.getId())) {
+                // Handle the case when the user is not found
+                responseObserver.onError(Status.NOT_FOUND
+                        .withDescription("User not found")
+                        .asRuntimeException());
+                return;
+            }
+
+            // The stream stays open until the client cancels it, changes are pushed by the broker after commit
+            ServerCallStreamObserver<SectionChange> serverCallObserver = (ServerCallStreamObserver<SectionChange>) responseObserver;
+            if (!sectionChangeBroker.subscribe(request.getId(), serverCallObserver)) {
+                responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                        .withDescription("Too many open section watchers for this user")
+                        .asRuntimeException());
+            }
+        } catch (Exception e) {
+            // Handle exceptions and provide appropriate gRPC error status
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+        }
+    }
+
+    @Override
+    public void publishPage(PageRequest request, StreamObserver<PublishedPage> responseObserver) {
+        if (!CallerIdentity.is(request.getId())) {
+            responseObserver.onError(CallerIdentity.denied(request.getId()));
+            return;
+        }
+        try {
+            PublishedPage page = pagePublisher.publish(request.getId()).orElse(null);
+
+            if (page == null) {
+                // Handle the case when the user is not found
+                responseObserver.onError(Status.NOT_FOUND
+                        .withDescription("User not found")
+                        .asRuntimeException());
+                return;
+            }
+
+            responseObserver.onNext(page);
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            // Handle exceptions and provide appropriate gRPC error status
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+        }
+    }
+
+    // The published page is what visitors of the page see, any signed in caller may read it
+    @Override
+    public void getPublishedPage(PageRequest request, StreamObserver<PublishedPage> responseObserver) {
+        try {
+            PublishedPage page = pagePublisher.getPublished(request.getId()).orElse(null);
+
+            if (page == null) {
+                responseObserver.onError(Status.NOT_FOUND
+                        .withDescription("Page was never published")
+                        .asRuntimeException());
+                return;
+            }
+
+            responseObserver.onNext(page);
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            // Handle exceptions and provide appropriate gRPC error status
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+        }
+    }
+
+    // Returns null unless every section of the page is cached
+    private PageResponse getCachedPage(Long userId) {
+        HeroSectionResponse hero = sectionCache.get(userId, SectionType.HERO, HeroSectionResponse.class);
+        NavResponse nav = sectionCache.get(userId, SectionType.NAV, NavResponse.class);
+        SliderResponse slider = sectionCache.get(userId, SectionType.SLIDER, SliderResponse.class);
+        ContactResponse contact = sectionCache.get(userId, SectionType.CONTACT, ContactResponse.class);
+        DetailResponse detail = sectionCache.get(userId, SectionType.DETAIL, DetailResponse.class);
+        FooterResponse footer = sectionCache.get(userId, SectionType.FOOTER, FooterResponse.class);
+
+        if (hero == null || nav == null || slider == null || contact == null || detail == null || footer == null) {
+            return null;
+        }
+        return PageResponse.newBuilder()
+                .setHero(hero)
+                .setNav(nav)
+                .setSlider(slider)
+                .setContact(contact)
+                .setDetail(detail)
+                .setFooter(footer)
+                .build();
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.services;
+
+import com.example.*;
+import com.example.cache.InvalidationBus;
+import com.example.cache.SectionCache;
+import com.example.repository.SectionTransferRepository;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.grpc.annotation.GrpcService;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+@Singleton
+@GrpcService
+public class PageTransferServiceImpl extends PageTransferServiceGrpc.PageTransferServiceImplBase {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PageTransferServiceImpl.class);
+
+    // Records written per JDBC batch and transaction, also the number of records a client may have in flight
+    @Value("${sections.transfer.batch-size:1000}")
+    private int batchSize;
+
+    @Inject
+    private SectionTransferRepository sectionTransferRepository;
+
+    @Inject
+    private SectionCache sectionCache;
+
+    @Inject
+    private InvalidationBus invalidationBus;
+
+    @Inject
+    private SectionWriteBehindBuffer writeBehindBuffer;
+
+    // An export holds a database connection and a thread until the client has read everything
+    private final ThreadPoolExecutor exporter;
+
+    public PageTransferServiceImpl(@Value("${sections.transfer.max-concurrent-exports:2}") int maxConcurrentExports) {
+        this.exporter = new ThreadPoolExecutor(maxConcurrentExports, maxConcurrentExports, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "page-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void exportPages(ExportPagesRequest request, StreamObserver<SectionRecord> responseObserver) {
+        ServerCallStreamObserver<SectionRecord> serverCallObserver = (ServerCallStreamObserver<SectionRecord>) responseObserver;
+        ReadySignal readySignal = new ReadySignal(serverCallObserver);
+        serverCallObserver.setOnReadyHandler(readySignal::signal);
+        serverCallObserver.setOnCancelHandler(readySignal::signal);
+
+        try {
+            exporter.execute(() -> export(request, serverCallObserver, readySignal));
+        } catch (RejectedExecutionException e) {
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                    .withDescription("Too many exports running, try again later")
+                    .asRuntimeException());
+        }
+    }
+
+    private void export(ExportPagesRequest request, ServerCallStreamObserver<SectionRecord> responseObserver, ReadySignal readySignal) {
+        try {
+            // Every record waits until the transport can take it, so a slow client slows the cursor down
+            sectionTransferRepository.exportSections(record -> {
+                if (request.getTypesCount() > 0 && !request.getTypesList().contains(record.getType())) {
+                    return;
+                }
+                readySignal.await();
+                responseObserver.onNext(record);
+            });
+            responseObserver.onCompleted();
+        } catch (CancellationException e) {
+            LOG.info("Page export cancelled by the client");
+        } catch (Exception e) {
+            LOG.error("Page export failed", e);
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+        }
+    }
+
+    @Override
+    public StreamObserver<SectionRecord> importPages(StreamObserver<ImportPagesResponse> responseObserver) {
+        ServerCallStreamObserver<ImportPagesResponse> serverCallObserver = (ServerCallStreamObserver<ImportPagesResponse>) responseObserver;
+        // Records are only requested as fast as they are written, the client is held back by transport flow control
+        serverCallObserver.disableAutoRequest();
+        serverCallObserver.request(batchSize);
+
+        // Buffered changes would otherwise be written over the imported sections later
+        writeBehindBuffer.flushAll();
+
+        return new StreamObserver<>() {
+            private final List<SectionRecord> batch = new ArrayList<>();
+            private long imported;
+            private long skipped;
+            private boolean failed;
+
+            @Override
+            public void onNext(SectionRecord record) {
+                if (failed) {
+                    return;
+                }
+                if (record.getType() == SectionType.SECTION_UNSPECIFIED || record.getType() == SectionType.UNRECOGNIZED) {
+                    fail(Status.INVALID_ARGUMENT.withDescription("Section record of user " + record.getUserId() + " has no type"));
+                    return;
+                }
+                batch.add(record);
+                if (batch.size() >= batchSize) {
+                    write();
+                }
+                if (!failed) {
+                    serverCallObserver.request(1);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // Batches already written stay, the client can import the same stream again
+                LOG.warn("Page import aborted by the client after {} sections: {}", imported, t.getMessage());
+                batch.clear();
+                invalidateCaches();
+            }
+
+            @Override
+            public void onCompleted() {
+                if (failed) {
+                    return;
+                }
+                write();
+                if (failed) {
+                    return;
+                }
+                invalidateCaches();
+                if (skipped > 0) {
+                    // Users are not part of the transfer, they have to be created in this deployment first
+                    LOG.warn("Page import skipped {} sections of users that do not exist", skipped);
+                }
+                LOG.info("Page import wrote {} sections", imported);
+                responseObserver.onNext(ImportPagesResponse.newBuilder()
+                        .setImported(imported)
+                        .setSkipped(skipped)
+                        .build());
+                responseObserver.onCompleted();
+            }
+
+            private void write() {
+                if (batch.isEmpty()) {
+                    return;
+                }
+                try {
+                    int written = sectionTransferRepository.importSections(batch);
+                    imported += written;
+                    skipped += batch.size() - written;
+                    batch.clear();
+                } catch (SQLException e) {
+                    LOG.error("Page import failed after {} sections", imported, e);
+                    fail(Status.INTERNAL.withDescription(e.getMessage()));
+                } catch (IllegalArgumentException e) {
+                    fail(Status.INVALID_ARGUMENT.withDescription(e.getMessage()));
+                }
+            }
+
+            private void fail(Status status) {
+                failed = true;
+                batch.clear();
+                invalidateCaches();
+                responseObserver.onError(status.asRuntimeException());
+            }
+        };
+    }
+
+    // The import bypasses the section services, so no change events exist for what it wrote
+    private void invalidateCaches() {
+        sectionCache.invalidateAll();
+        invalidationBus.publishAllChanged();
+    }
+
+    @PreDestroy
+    public void stop() {
+        exporter.shutdownNow();
+    }
+
+    // Lets the export thread wait for the transport instead of buffering records the client has not read yet
+    private static final class ReadySignal {
+
+        private final ServerCallStreamObserver<?> observer;
+
+        private ReadySignal(ServerCallStreamObserver<?> observer) {
+            this.observer = observer;
+        }
+
+        synchronized void signal() {
+            notifyAll();
+        }
+
+        synchronized void await() {
+            try {
+                while (!observer.isCancelled() && !observer.isReady()) {
+                    wait(1000);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Page export interrupted");
+            }
+            if (observer.isCancelled()) {
+                throw new CancellationException("Page export cancelled");
+            }
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.example.services;
+
+import com.example.*;
+import com.example.cache.SectionCache;
+import com.example.entity.Section;
+import com.example.entity.SectionId;
+import com.example.events.SectionChangedEvent;
+import com.example.exceptions.InvalidPatchException;
+import com.example.execution.ExecutionGroups;
+import com.example.patch.JsonPatchApplier;
+import com.example.repository.SectionLayout;
+import com.example.repository.SectionReadRepository;
+import com.example.repository.SectionRepository;
+import com.example.repository.SectionUpsertRepository;
+import com.example.repository.SectionVariants;
+import com.example.templates.SectionTemplates;
+import com.example.timing.ServerTiming;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import io.grpc.Context;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import io.micronaut.context.event.ApplicationEventPublisher;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.transaction.annotation.Transactional;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import jakarta.persistence.OptimisticLockException;
+import org.hibernate.StaleStateException;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+
+// The one implementation behind the six section RPCs, for every section type stored in page_section.
+// Responses are built through the proto descriptors: every section response names its fields after the
+// variants and has active, version and unchanged fields, so no per-type mapping code is needed.
+@Singleton
+public class SectionService {
+
+    private static final Map<SectionType, Message> RESPONSE_PROTOTYPES = Map.of(
+            SectionType.HERO, HeroSectionResponse.getDefaultInstance(),
+            SectionType.NAV, NavResponse.getDefaultInstance(),
+            SectionType.SLIDER, SliderResponse.getDefaultInstance(),
+            SectionType.CONTACT, ContactResponse.getDefaultInstance(),
+            SectionType.DETAIL, DetailResponse.getDefaultInstance(),
+            SectionType.FOOTER, FooterResponse.getDefaultInstance());
+
+    @Inject
+    private SectionRepository sectionRepository;
+
+    @Inject
+    private SectionUpsertRepository sectionUpsertRepository;
+
+    @Inject
+    private ApplicationEventPublisher<SectionChangedEvent> eventPublisher;
+
+    @Inject
+    private SectionCache sectionCache;
+
+    @Inject
+    private SectionTemplates sectionTemplates;
+
+    @Inject
+    private JsonPatchApplier jsonPatchApplier;
+
+    @Inject
+    private SectionWriteBehindBuffer writeBehindBuffer;
+
+    // Only present with sections.reactive-reads.enabled
+    @Inject
+    @Nullable
+    private SectionReadRepository sectionReadRepository;
+
+    @Inject
+    @Named(TaskExecutors.BLOCKING)
+    private ExecutorService blockingExecutor;
+
+    // Entry of the section RPCs. A fetch is answered from the cache or, with reactive reads enabled, read without
+    // a transaction and completed asynchronously. In write-behind mode a change is acknowledged from the buffer,
+    // without taking a connection. Everything else is applied in a transaction.
+    public <R extends Message> void update(SectionType type, Long userId, SectionUpdate update, StreamObserver<R> responseObserver) {
+        if (update.isFetchOnly()) {
+            Message cachedResponse;
+            try (ServerTiming.Phase ignored = ServerTiming.start("cache")) {
+                cachedResponse = sectionCache.get(userId, type, Message.class);
+            }
+            if (cachedResponse != null) {
+                long version = getVersion(cachedResponse);
+                respond(responseObserver, isCurrent(update, version) ? unchangedResponse(type, version) : cachedResponse);
+                return;
+            }
+            if (sectionReadRepository != null) {
+                readAsync(type, userId, update, responseObserver);
+                return;
+            }
+        } else {
+            Message bufferedResponse;
+            try {
+                bufferedResponse = bufferWrite(type, userId, update);
+            } catch (IllegalArgumentException e) {
+                // A variant is not JSON, it is neither acknowledged nor buffered
+                responseObserver.onError(Status.INVALID_ARGUMENT
+                        .withDescription(e.getMessage())
+                        .asRuntimeException());
+                return;
+            }
+            if (bufferedResponse != null) {
+                respond(responseObserver, bufferedResponse);
+                return;
+            }
+        }
+        write(type, userId, update, responseObserver);
+    }
+
+    // Answers only once apply has committed, a change that fails to commit is never reported as done
+    private <R extends Message> void write(SectionType type, Long userId, SectionUpdate update, StreamObserver<R> responseObserver) {
+        Message response;
+        try {
+            response = apply(type, userId, update);
+        } catch (StatusRuntimeException e) {
+            responseObserver.onError(e);
+            return;
+        } catch (InvalidPatchException | IllegalArgumentException e) {
+            // The patch does not apply to the stored document or a variant is not JSON, nothing was changed
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+            return;
+        } catch (Exception e) {
+            if (isConcurrentChange(e)) {
+                // Another request changed the section between our read and write, at the flush or at commit
+                responseObserver.onError(Status.ABORTED
+                        .withDescription("Section was changed concurrently")
+                        .asRuntimeException());
+                return;
+            }
+            // Handle exceptions and provide appropriate gRPC error status
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+            return;
+        }
+        respond(responseObserver, response);
+    }
+
+    // Applies the update and returns the response to send once the transaction has committed. A request that
+    // cannot be applied throws, as a StatusRuntimeException when it maps to a status of its own.
+    @Transactional
+    public Message apply(SectionType type, Long userId, SectionUpdate update) {
+        // Plain field changes and first reads are written with a single upsert, without loading the user.
+        // Reads and patches look the section up first, so a plain read takes no row lock. The plain fields of a
+        // request with patches are set together with the patched variants, see patch.
+        SectionId id = new SectionId(userId, type);
+        Section section = null;
+        boolean changed = false;
+        try (ServerTiming.Phase ignored = ServerTiming.start("query")) {
+            if (update.isFetchOnly() || update.hasPatches()) {
+                section = sectionRepository.findById(id).orElse(null);
+            }
+            if (section == null) {
+                section = upsert(type, userId, update.hasPatches() ? SectionUpdate.NONE : update).orElse(null);
+                changed = section != null;
+            }
+            if (section == null) {
+                // Nothing was written, the values are already stored, the version is stale or the user does not exist
+                section = sectionRepository.findById(id).orElse(null);
+            }
+        }
+
+        if (section == null) {
+            // Handle the case when the user is not found
+            throw Status.NOT_FOUND
+                    .withDescription("User not found")
+                    .asRuntimeException();
+        }
+
+        // The change was made on an older version than the stored one
+        if (!changed && !update.isFetchOnly() && update.version() != null && update.version() != section.getVersion()) {
+            throw Status.ABORTED
+                    .withDescription("Section was changed since version " + update.version())
+                    .asRuntimeException();
+        }
+
+        if (update.hasPatches() && applyPatches(type, section, update)) {
+            changed = true;
+        }
+
+        Message response;
+        try (ServerTiming.Phase ignored = ServerTiming.start("build")) {
+            response = toResponse(section);
+        }
+
+        // Only an actual change is pushed to the section watchers
+        if (changed) {
+            eventPublisher.publishEvent(SectionChangedEvent.of(userId, type, response));
+        } else {
+            sectionCache.putIfAbsent(userId, type, response);
+        }
+
+        // The client already holds this version, answer without the payload
+        if (isCurrent(update, section.getVersion())) {
+            return unchangedResponse(type, section.getVersion());
+        }
+        return response;
+    }
+
+    // An optimistic lock failure surfaces as it is from the flush, and wrapped by the transaction manager from the commit
+    private static boolean isConcurrentChange(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException || cause instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The section is read over R2DBC and the response completed on its thread. A section that does not exist yet
+    // is created by the transactional path on the blocking executor, with the call's context for timing and metrics.
+    private <R extends Message> void readAsync(SectionType type, Long userId, SectionUpdate update, StreamObserver<R> responseObserver) {
+        // Taken on the call's thread, the callbacks below run on an R2DBC thread
+        Runnable createSection = ExecutionGroups.propagate(Context.current().wrap(() -> write(type, userId, update, responseObserver)));
+        ServerTiming.Phase query = ServerTiming.start("query");
+        sectionReadRepository.findById(new SectionId(userId, type), update.version() != null ? update.version() : -1)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .subscribe(found -> {
+                    query.close();
+                    if (found.isEmpty()) {
+                        blockingExecutor.execute(createSection);
+                        return;
+                    }
+                    try {
+                        Section section = found.get().section();
+                        Message response = toResponse(section);
+                        if (found.get().fromPrimary()) {
+                            sectionCache.putIfAbsent(userId, type, response);
+                        }
+                        respond(responseObserver, isCurrent(update, section.getVersion()) ? unchangedResponse(type, section.getVersion()) : response);
+                    } catch (Exception e) {
+                        responseObserver.onError(Status.INTERNAL
+                                .withDescription(e.getMessage())
+                                .asRuntimeException());
+                    }
+                }, error -> {
+                    query.close();
+                    responseObserver.onError(Status.INTERNAL
+                            .withDescription(error.getMessage())
+                            .asRuntimeException());
+                });
+    }
+
+    // The stored section as a response, read from the primary so a change just committed elsewhere is seen.
+    // Empty when the section does not exist.
+    @Transactional
+    public Optional<Message> findSection(Long userId, SectionType type) {
+        return sectionRepository.findById(new SectionId(userId, type)).map(this::toResponse);
+    }
+
+    // Responses of every section of the user, keyed by type. Sections the user has never opened are created with
+    // their default values, same as the per-section RPCs. Empty when the user does not exist.
+    @Transactional
+    public Optional<Map<SectionType, Message>> getSections(Long userId) {
+        Map<SectionType, Message> responses = new EnumMap<>(SectionType.class);
+        for (Section section : sectionRepository.findByIdUserId(userId)) {
+            Message response = toResponse(section);
+            sectionCache.putIfAbsent(userId, section.getId().getSectionType(), response);
+            responses.put(section.getId().getSectionType(), response);
+        }
+
+        for (SectionLayout layout : SectionLayout.ALL) {
+            if (responses.containsKey(layout.type())) {
+                continue;
+            }
+            Optional<Section> created = upsert(layout.type(), userId, SectionUpdate.NONE);
+            Section section = created.or(() -> sectionRepository.findById(new SectionId(userId, layout.type()))).orElse(null);
+            if (section == null) {
+                return Optional.empty();
+            }
+            Message response = toResponse(section);
+            if (created.isPresent()) {
+                eventPublisher.publishEvent(SectionChangedEvent.of(userId, layout.type(), response));
+            } else {
+                sectionCache.putIfAbsent(userId, layout.type(), response);
+            }
+            responses.put(layout.type(), response);
+        }
+        return Optional.of(responses);
+    }
+
+    // Inserts the default section or merges the non-empty fields of the update into the stored one.
+    // Empty when nothing was written.
+    private Optional<Section> upsert(SectionType type, Long userId, SectionUpdate update) {
+        SectionLayout layout = SectionLayout.of(type);
+        return sectionUpsertRepository.upsert(type, userId, new SectionUpsertRepository.SectionValues(
+                layout.hasActive() ? update.active() : "",
+                SectionVariants.toJson(update.variants()),
+                !update.isFetchOnly() && update.version() != null ? update.version() : -1,
+                sectionTemplates.getCurrentVersion(),
+                layout.hasActive() ? layout.defaultActive() : ""));
+    }
+
+    // Applies the plain field changes and then the JSON patches to the variant documents, each patch targets a
+    // single variant. Returns true when the section changed and was written.
+    private boolean applyPatches(SectionType type, Section section, SectionUpdate update) {
+        try (ServerTiming.Phase ignored = ServerTiming.start("patch")) {
+            if (!patch(type, section, update)) {
+                return false;
+            }
+        }
+        // Flushed right away so the response carries the incremented version
+        try (ServerTiming.Phase ignored = ServerTiming.start("flush")) {
+            sectionRepository.update(section);
+            sectionRepository.flush();
+        }
+        return true;
+    }
+
+    // Sets the changed active variant and variant documents, then the patched variants, on the section.
+    // Patches apply on top of a variant document set by the same request. Returns false when nothing changed.
+    // The section is left untouched when a variant or a patch is invalid.
+    private boolean patch(SectionType type, Section section, SectionUpdate update) {
+        SectionLayout layout = SectionLayout.of(type);
+        Map<String, String> stored = SectionVariants.fromJson(section.getVariants());
+        Map<String, String> patched = new LinkedHashMap<>(stored);
+        // Normalized the way the column stores them, so an unchanged document does not count as a change
+        patched.putAll(SectionVariants.fromJson(SectionVariants.toJson(update.variants())));
+        for (SectionPatch patch : update.patches()) {
+            if (!layout.variants().contains(patch.getVariant())) {
+                throw new InvalidPatchException("Unknown variant " + patch.getVariant());
+            }
+            String document = sectionTemplates.resolve(type, patch.getVariant(), section.getTemplateVersion(), patched.get(patch.getVariant()));
+            patched.put(patch.getVariant(), jsonPatchApplier.apply(document, patch.getOperationsList()));
+        }
+        String active = layout.hasActive() && !update.active().isEmpty() ? update.active() : section.getActive();
+        if (patched.equals(stored) && Objects.equals(active, section.getActive())) {
+            return false;
+        }
+
+        section.setVariants(SectionVariants.toJson(patched));
+        section.setActive(active);
+        return true;
+    }
+
+    // True for a fetch from a client that already holds the given version
+    private boolean isCurrent(SectionUpdate update, long version) {
+        return update.isFetchOnly() && update.version() != null && update.version() == version;
+    }
+
+    // Returns the acknowledged response when the change was buffered, null when it has to be written now.
+    // Only plain field changes of a section whose current state is cached are buffered, the flush writes them
+    // through apply so they are not buffered again, a failure is logged and evicts the acknowledged state. Throws IllegalArgumentException when a variant is not JSON.
+    private Message bufferWrite(SectionType type, Long userId, SectionUpdate update) {
+        if (!writeBehindBuffer.isEnabled()) {
+            return null;
+        }
+        Message cachedResponse = sectionCache.get(userId, type, Message.class);
+        if (cachedResponse != null && !update.hasPatches() && update.version() == null) {
+            // Rejected now, a flush could only log it after the client was told it succeeded
+            SectionVariants.toJson(update.variants());
+        }
+        if (cachedResponse == null || update.hasPatches() || update.version() != null
+                || !writeBehindBuffer.offer(userId, type, update,
+                        // Written in the group of the call that buffered it, wherever the flush runs
+                        ExecutionGroups.propagate(buffered -> apply(type, userId, buffered)))) {
+            // Whatever is still buffered for this section is written first so changes stay in order
+            writeBehindBuffer.flush(userId, type);
+            return null;
+        }
+
+        Message.Builder response = cachedResponse.toBuilder();
+        update.variants().forEach((variant, value) -> response.setField(field(response, variant), value));
+        if (!update.active().isEmpty() && SectionLayout.of(type).hasActive()) {
+            response.setField(field(response, "active"), update.active());
+        }
+        // Later reads on this node see the change before it is written
+        Message acknowledged = response.build();
+        sectionCache.put(userId, type, acknowledged);
+        return acknowledged;
+    }
+
+    Message toResponse(Section section) {
+        SectionType type = section.getId().getSectionType();
+        SectionLayout layout = SectionLayout.of(type);
+        Map<String, String> stored = SectionVariants.fromJson(section.getVariants());
+
+        Message.Builder response = RESPONSE_PROTOTYPES.get(type).newBuilderForType();
+        for (String variant : layout.variants()) {
+            response.setField(field(response, variant),
+                    sectionTemplates.resolve(type, variant, section.getTemplateVersion(), stored.get(variant)));
+        }
+        if (layout.hasActive() && section.getActive() != null) {
+            response.setField(field(response, "active"), section.getActive());
+        }
+        response.setField(field(response, "version"), section.getVersion());
+        return response.build();
+    }
+
+    private Message unchangedResponse(SectionType type, long version) {
+        Message.Builder response = RESPONSE_PROTOTYPES.get(type).newBuilderForType();
+        response.setField(field(response, "version"), version);
+        response.setField(field(response, "unchanged"), true);
+        return response.build();
+    }
+
+    private static long getVersion(Message response) {
+        return (Long) response.getField(response.getDescriptorForType().findFieldByName("version"));
+    }
+
+    private static Descriptors.FieldDescriptor field(Message.Builder response, String name) {
+        return response.getDescriptorForType().findFieldByName(name);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R extends Message> void respond(StreamObserver<R> responseObserver, Message response) {
+        responseObserver.onNext((R) response);
+        responseObserver.onCompleted();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.services;
+
+import com.example.SectionPatch;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// What a section request asks for, independent of the section type. As in the requests, an empty active or
+// variant means unchanged, and version is null when the request carries none.
+public record SectionUpdate(String active, Map<String, String> variants, List<SectionPatch> patches, Long version) {
+
+    public static final SectionUpdate NONE = new SectionUpdate("", Map.of(), List.of(), null);
+
+    public SectionUpdate {
+        Map<String, String> changed = new LinkedHashMap<>();
+        variants.forEach((variant, value) -> {
+            if (!value.isEmpty()) {
+                changed.put(variant, value);
+            }
+        });
+        variants = changed;
+    }
+
+    // True when the request carries no field to change
+    public boolean isFetchOnly() {
+        return active.isEmpty() && variants.isEmpty() && patches.isEmpty();
+    }
+
+    public boolean hasPatches() {
+        return !patches.isEmpty();
+    }
+
+    // Non-empty values of the newer update win, used to merge buffered changes
+    public SectionUpdate merge(SectionUpdate next) {
+        Map<String, String> merged = new LinkedHashMap<>(variants);
+        merged.putAll(next.variants());
+        return new SectionUpdate(next.active().isEmpty() ? active : next.active(), merged, List.of(), null);
+    }
+}
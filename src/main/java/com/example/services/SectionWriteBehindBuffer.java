@@ -0,0 +1,133 @@
+package com.example.services;
+
+import com.example.SectionType;
+import com.example.cache.SectionCache;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.ShutdownEvent;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Optional write-behind mode for the section services. Successive changes to the same section are merged in memory
+// and written once per flush window; everything still buffered is written when the application shuts down.
+@Singleton
+public class SectionWriteBehindBuffer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SectionWriteBehindBuffer.class);
+
+    // Serializes the flushes of a section, a change taken from the buffer is written before a later one is taken
+    private final Object[] flushLocks = new Object[64];
+
+    {
+        for (int i = 0; i < flushLocks.length; i++) {
+            flushLocks[i] = new Object();
+        }
+    }
+
+    @Value("${sections.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${sections.write-behind.flush-interval:500ms}")
+    private Duration flushInterval;
+
+    // Reaching it triggers an early flush, further changes are written directly until there is room again
+    @Value("${sections.write-behind.max-pending:10000}")
+    private int maxPending;
+
+    @Inject
+    private SectionCache sectionCache;
+
+    private final Map<PendingKey, Pending> pending = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "section-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener
+    public void onStartup(StartupEvent event) {
+        if (enabled) {
+            flusher.scheduleWithFixedDelay(this::flushAll, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Returns true when the update was merged into the buffer and will be written by a later flush
+    public boolean offer(Long userId, SectionType type, SectionUpdate update, Consumer<SectionUpdate> writer) {
+        if (!enabled) {
+            return false;
+        }
+        PendingKey key = new PendingKey(userId, type);
+        if (pending.size() >= maxPending && !pending.containsKey(key)) {
+            flusher.execute(this::flushAll);
+            return false;
+        }
+        pending.merge(key, new Pending(update, writer),
+                (buffered, next) -> new Pending(buffered.update().merge(next.update()), next.writer()));
+        return true;
+    }
+
+    // Writes what is buffered for one section right away, used before a change that cannot be buffered.
+    // Waits for a flush of the same section that is still writing, so an older change never overwrites a newer one.
+    public void flush(Long userId, SectionType type) {
+        PendingKey key = new PendingKey(userId, type);
+        synchronized (flushLocks[Math.floorMod(key.hashCode(), flushLocks.length)]) {
+            Pending buffered = pending.remove(key);
+            if (buffered != null) {
+                write(userId, type, buffered);
+            }
+        }
+    }
+
+    public void flushAll() {
+        for (PendingKey key : pending.keySet()) {
+            flush(key.userId(), key.type());
+        }
+    }
+
+    private void write(Long userId, SectionType type, Pending buffered) {
+        try {
+            buffered.writer().accept(buffered.update());
+        } catch (Exception e) {
+            LOG.error("Failed to write buffered {} section of user {}", type, userId, e);
+            sectionCache.invalidate(userId, type);
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    @EventListener
+    public void onShutdown(ShutdownEvent event) {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Durable on shutdown: whatever is still buffered is written before the datasource closes
+        flushAll();
+    }
+
+    private record PendingKey(Long userId, SectionType type) {
+    }
+
+    private record Pending(SectionUpdate update, Consumer<SectionUpdate> writer) {
+    }
+}
@@ -8,11 +8,20 @@ import com.example.repository.UserRepository;
 import com.example.security.BcryptEncoderService;
 import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
+import io.micronaut.grpc.annotation.GrpcService;
 import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.RejectedExecutionException;
 
+@Singleton
+@GrpcService
 public class UserRegisterImpl extends UserSignUpGrpc.UserSignUpImplBase {
 
+    private static final Logger LOG = LoggerFactory.getLogger(UserRegisterImpl.class);
+
     @Inject
     public UserRepository userRepository;
     @Inject
@@ -21,6 +30,35 @@ public class UserRegisterImpl extends UserSignUpGrpc.UserSignUpImplBase {
     @Override
     public void register(UserRequest request, StreamObserver<UserReply> responseObserver) {
 
+        try{
+            // Hash on the bcrypt pool, the user is saved once the hash is ready
+            bcryptEncoderService.hashPasswordAsync(request.getPassword()).whenComplete((hashedPassword, error) -> {
+                if (error != null) {
+                    responseObserver.onError(Status.INTERNAL
+                            .withDescription(error.getMessage())
+                            .asRuntimeException());
+                    return;
+                }
+                saveUser(request, hashedPassword, responseObserver);
+            });
+        }
+        catch(RejectedExecutionException e){
+            // The bcrypt pool is saturated, reject right away instead of queueing more work
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                    .withDescription("Too many concurrent registrations, try again later")
+                    .asRuntimeException());
+        }
+        catch(Exception e){
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+
+        }
+
+
+    }
+
+    private void saveUser(UserRequest request, String hashedPassword, StreamObserver<UserReply> responseObserver) {
         try{
             UserReply userReply = UserReply.newBuilder()
                     .setUserName(request.getUserName())
@@ -30,11 +68,11 @@ public class UserRegisterImpl extends UserSignUpGrpc.UserSignUpImplBase {
             UserEntity userEntity = new UserEntity();
             userEntity.setEmail(request.getEmail());
             userEntity.setUserName(request.getUserName());
-            userEntity.setPassword(bcryptEncoderService.hashPassword(request.getPassword()));
+            userEntity.setPassword(hashedPassword);
             userRepository.save(userEntity);
             responseObserver.onNext(userReply);
             responseObserver.onCompleted();
-            System.out.println(userReply);
+            LOG.debug("Registered user {}", request.getUserName());
         }
         catch(Exception e){
             responseObserver.onError(Status.INTERNAL
@@ -42,7 +80,5 @@ public class UserRegisterImpl extends UserSignUpGrpc.UserSignUpImplBase {
                     .asRuntimeException());
 
         }
-
-
     }
 }
@@ -0,0 +1,154 @@
+package com.example.snapshots;
+
+import com.example.PublishedPage;
+import com.example.PublishedSection;
+import com.example.SectionType;
+import com.example.entity.PageSnapshot;
+import com.example.events.PagePublishedEvent;
+import com.example.replica.ReadReplica;
+import com.example.repository.PageSnapshotRepository;
+import com.example.repository.SectionLayout;
+import com.example.services.SectionService;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import io.micronaut.context.event.ApplicationEventPublisher;
+import io.micronaut.transaction.annotation.Transactional;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import jakarta.persistence.EntityManager;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Publishing renders the active variant of every section into one immutable PublishedPage.
+// Page views read it from the local snapshot store, the database is only read when this node has no copy yet.
+@Singleton
+public class PagePublisher {
+
+    @Inject
+    private SectionService sectionService;
+
+    @Inject
+    private PageSnapshotRepository pageSnapshotRepository;
+
+    @Inject
+    private PageSnapshotStore pageSnapshotStore;
+
+    @Inject
+    private ApplicationEventPublisher<PagePublishedEvent> eventPublisher;
+
+    @Inject
+    private EntityManager entityManager;
+
+    // Database reads of pages missing from the store, one per user at a time
+    private final Map<Long, CompletableFuture<Optional<PublishedPage>>> loads = new ConcurrentHashMap<>();
+
+    // Empty when the user does not exist. Publishes of the same page run one after the other, each on the
+    // revision the previous one committed.
+    @Transactional
+    public Optional<PublishedPage> publish(Long userId) {
+        Map<SectionType, Message> sections = sectionService.getSections(userId).orElse(null);
+        if (sections == null) {
+            return Optional.empty();
+        }
+
+        PageSnapshot snapshot = lockSnapshot(userId);
+        PublishedPage.Builder page = PublishedPage.newBuilder()
+                .setUserId(userId)
+                .setRevision(snapshot.getRevision() + 1)
+                .setPublishedAt(System.currentTimeMillis());
+        for (SectionLayout layout : SectionLayout.ALL) {
+            page.addSections(render(layout, sections.get(layout.type())));
+        }
+        PublishedPage published = page.build();
+
+        byte[] content = published.toByteArray();
+        snapshot.setRevision(published.getRevision());
+        snapshot.setContent(content);
+        pageSnapshotRepository.update(snapshot);
+
+        // The local store and the other nodes pick it up once committed
+        eventPublisher.publishEvent(new PagePublishedEvent(userId, content));
+        return Optional.of(published);
+    }
+
+    // Empty when the page was never published. Concurrent reads of a page missing from the store share one
+    // database read.
+    public Optional<PublishedPage> getPublished(Long userId) throws InvalidProtocolBufferException {
+        Optional<PublishedPage> stored = pageSnapshotStore.get(userId);
+        if (stored.isPresent()) {
+            return stored;
+        }
+
+        CompletableFuture<Optional<PublishedPage>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<PublishedPage>> running = loads.putIfAbsent(userId, load);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof InvalidProtocolBufferException invalid) {
+                    throw invalid;
+                }
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+            }
+        }
+        try {
+            Optional<PublishedPage> page = load(userId);
+            load.complete(page);
+            return page;
+        } catch (InvalidProtocolBufferException | RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(userId, load);
+        }
+    }
+
+    // Read from the primary, a lagging replica could return a revision the store has already evicted
+    private Optional<PublishedPage> load(Long userId) throws InvalidProtocolBufferException {
+        long generation = pageSnapshotStore.generation();
+        PageSnapshot snapshot = ReadReplica.onPrimary(() -> pageSnapshotRepository.findById(userId)).orElse(null);
+        if (snapshot == null) {
+            return Optional.empty();
+        }
+        pageSnapshotStore.appendLoaded(userId, snapshot.getContent(), generation);
+        return Optional.of(PublishedPage.parseFrom(snapshot.getContent()));
+    }
+
+    // The snapshot row of the user, locked until the transaction ends. A first publish inserts it with revision 0,
+    // concurrent first publishes wait on the insert instead of failing on the primary key.
+    private PageSnapshot lockSnapshot(Long userId) {
+        entityManager.createNativeQuery("INSERT INTO page_snapshot (user_id, revision, content) " +
+                        "VALUES (:userId, 0, CAST('' AS bytea)) ON CONFLICT (user_id) DO NOTHING")
+                .setParameter("userId", userId)
+                .executeUpdate();
+        return (PageSnapshot) entityManager.createNativeQuery(
+                        "SELECT * FROM page_snapshot WHERE user_id = :userId FOR UPDATE", PageSnapshot.class)
+                .setParameter("userId", userId)
+                .getSingleResult();
+    }
+
+    // The section response field named after the active variant, the slider only has one
+    private static PublishedSection render(SectionLayout layout, Message section) {
+        Descriptors.Descriptor descriptor = section.getDescriptorForType();
+        String active = layout.hasActive()
+                ? (String) section.getField(descriptor.findFieldByName("active"))
+                : layout.variants().get(0);
+        String variant = active.toLowerCase(Locale.ROOT);
+        if (!layout.variants().contains(variant)) {
+            variant = layout.variants().get(0);
+        }
+        String content = (String) section.getField(descriptor.findFieldByName(variant));
+        return PublishedSection.newBuilder()
+                .setType(layout.type())
+                .setActive(active)
+                .setContent(ByteString.copyFromUtf8(content))
+                .build();
+    }
+}
@@ -0,0 +1,404 @@
+package com.example.snapshots;
+
+import com.example.PublishedPage;
+import com.example.events.PagePublishedEvent;
+import com.google.protobuf.CodedInputStream;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.convert.format.ReadableBytes;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.micronaut.transaction.annotation.TransactionalEventListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only store of published page snapshots in memory-mapped segment files on the local disk.
+// A record is [length][crc32][user id][PublishedPage bytes]; the record of a user with the highest revision
+// supersedes the others. The index of the latest record per user is rebuilt by scanning the segments on startup,
+// and segments holding mostly superseded records are compacted while running.
+@Singleton
+public class PageSnapshotStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PageSnapshotStore.class);
+
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".snap";
+
+    // A segment with less than this share of live records has them copied to the active segment and is deleted
+    private static final double MIN_LIVE_RATIO = 0.5;
+
+    // Field number and varint wire type (0) of PublishedPage.revision
+    private static final int REVISION_TAG = PublishedPage.REVISION_FIELD_NUMBER << 3;
+
+    @Value("${snapshots.directory:data/snapshots}")
+    private String directory;
+
+    @ReadableBytes
+    @Value("${snapshots.segment-size:64MB}")
+    private int segmentSize;
+
+    private final Map<Long, Location> index = new ConcurrentHashMap<>();
+
+    // Counts evictions, a snapshot read from the database is only stored when none happened meanwhile
+    private final AtomicLong evictions = new AtomicLong();
+
+    // Guarded by this, only the last segment is written to
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment active;
+    // Deleted segments still mapped, a page returned by get just before may still be read from them
+    private final List<Segment> retired = new ArrayList<>();
+
+    @PostConstruct
+    void open() {
+        try {
+            Path root = Paths.get(directory);
+            Files.createDirectories(root);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(root)) {
+                files = listing.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                        .sorted()
+                        .toList();
+            }
+            for (Path file : files) {
+                Segment segment = map(file, Files.size(file));
+                scan(segment);
+                segments.add(segment);
+            }
+            if (segments.isEmpty()) {
+                roll(segmentSize);
+            } else {
+                active = segments.get(segments.size() - 1);
+            }
+            deleteUnreferencedSegments();
+            LOG.info("Opened page snapshot store in {} with {} pages in {} segments", root, index.size(), segments.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the page snapshot store in " + directory, e);
+        }
+    }
+
+    // Written once the publish is committed
+    @TransactionalEventListener
+    public void onPagePublished(PagePublishedEvent event) {
+        append(event.userId(), event.snapshot());
+    }
+
+    // Ignored when a snapshot of the same or a later revision is stored already, so publishes committed
+    // in quick succession cannot leave the older one in place
+    public synchronized void append(Long userId, byte[] snapshot) {
+        long revision = revisionOf(ByteBuffer.wrap(snapshot));
+        Location stored = index.get(userId);
+        if (stored != null && stored.revision() >= revision) {
+            return;
+        }
+        index.put(userId, write(userId, snapshot, revision));
+    }
+
+    // The current value of the eviction counter, taken before a snapshot is read from the database
+    public long generation() {
+        return evictions.get();
+    }
+
+    // Stores a snapshot read from the database, unless something was evicted since generation was taken.
+    // The read may then have raced a publish on another node, and the snapshot is left to the next read.
+    public synchronized boolean appendLoaded(Long userId, byte[] snapshot, long generation) {
+        if (evictions.get() != generation) {
+            return false;
+        }
+        append(userId, snapshot);
+        return true;
+    }
+
+    private Location write(Long userId, byte[] snapshot, long revision) {
+        int recordSize = HEADER_SIZE + snapshot.length;
+        // A zero length marks the end of a segment, so one always has to remain
+        if (active.buffer().capacity() - active.position() < recordSize + Integer.BYTES) {
+            roll(Math.max(segmentSize, recordSize + Integer.BYTES));
+        }
+
+        MappedByteBuffer buffer = active.buffer();
+        int offset = active.position();
+        CRC32 crc = new CRC32();
+        crc.update(snapshot);
+        buffer.put(offset + HEADER_SIZE, snapshot);
+        buffer.putLong(offset + Integer.BYTES * 2, userId);
+        buffer.putInt(offset + Integer.BYTES, (int) crc.getValue());
+        // The length goes last, a record cut short by a crash is never read
+        buffer.putInt(offset, snapshot.length);
+        active.advance(recordSize);
+        return new Location(active, offset + HEADER_SIZE, snapshot.length, revision);
+    }
+
+    // Parsed straight from the mapped segment, the section contents stay views of the mapped memory
+    public Optional<PublishedPage> get(Long userId) {
+        Location location = index.get(userId);
+        if (location == null) {
+            return Optional.empty();
+        }
+        ByteBuffer record = location.segment().buffer().slice(location.offset(), location.length());
+        CodedInputStream input = CodedInputStream.newInstance(record);
+        input.enableAliasing(true);
+        try {
+            return Optional.of(PublishedPage.parseFrom(input));
+        } catch (IOException e) {
+            LOG.warn("Dropping unreadable snapshot of user {}", userId, e);
+            index.remove(userId, location);
+            return Optional.empty();
+        }
+    }
+
+    // The next read loads the snapshot from the database again
+    public synchronized void evict(Long userId) {
+        evictions.incrementAndGet();
+        index.remove(userId);
+    }
+
+    public synchronized void evictAll() {
+        evictions.incrementAndGet();
+        index.clear();
+    }
+
+    // Evicts the snapshots whose revision is not the published one, e.g. kept on disk while this node was down.
+    // Returns the number evicted.
+    public synchronized int evictOutdated(Map<Long, Long> publishedRevisions) {
+        evictions.incrementAndGet();
+        int evicted = 0;
+        Iterator<Map.Entry<Long, Location>> iterator = index.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Location> entry = iterator.next();
+            Long published = publishedRevisions.get(entry.getKey());
+            if (published == null || published != entry.getValue().revision()) {
+                iterator.remove();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    // Copies the live records of mostly superseded segments to the active one and deletes the segments no record
+    // points to any more, so a long running node does not keep every snapshot it ever stored
+    @Scheduled(fixedDelay = "${snapshots.compaction-interval:5m}", initialDelay = "${snapshots.compaction-interval:5m}")
+    public synchronized void compact() {
+        // Retired by the previous run, the responses read from them were sent long ago
+        unmapRetired();
+
+        Map<Segment, Integer> liveBytes = new HashMap<>();
+        for (Location location : index.values()) {
+            liveBytes.merge(location.segment(), HEADER_SIZE + location.length(), Integer::sum);
+        }
+        // Segments rolled by the copies below are newer than this one and never compacted in the same run
+        Segment current = active;
+        int copied = 0;
+        for (Segment segment : List.copyOf(segments)) {
+            int live = liveBytes.getOrDefault(segment, 0);
+            if (segment.sequence() >= current.sequence() || live == 0 || live >= segment.position() * MIN_LIVE_RATIO) {
+                continue;
+            }
+            for (Map.Entry<Long, Location> entry : index.entrySet()) {
+                Location location = entry.getValue();
+                if (location.segment() == segment) {
+                    byte[] snapshot = new byte[location.length()];
+                    segment.buffer().get(location.offset(), snapshot);
+                    index.put(entry.getKey(), write(entry.getKey(), snapshot, location.revision()));
+                    copied++;
+                }
+            }
+        }
+        try {
+            deleteUnreferencedSegments();
+        } catch (IOException e) {
+            LOG.warn("Failed to delete superseded snapshot segments", e);
+        }
+        if (copied > 0) {
+            LOG.info("Compacted the page snapshot store, copied {} snapshots, {} segments left", copied, segments.size());
+        }
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    private void scan(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer();
+        int offset = 0;
+        while (offset + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+            int expectedCrc = buffer.getInt(offset + Integer.BYTES);
+            long userId = buffer.getLong(offset + Integer.BYTES * 2);
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(offset + HEADER_SIZE, length));
+            if ((int) crc.getValue() != expectedCrc) {
+                LOG.warn("Corrupt snapshot record at {} of {}, ignoring the rest of the segment", offset, segment.file());
+                break;
+            }
+            Location location = new Location(segment, offset + HEADER_SIZE, length,
+                    revisionOf(buffer.slice(offset + HEADER_SIZE, length)));
+            index.merge(userId, location, (stored, scanned) -> scanned.revision() >= stored.revision() ? scanned : stored);
+            offset += HEADER_SIZE + length;
+        }
+        segment.advance(offset);
+    }
+
+    // Older segments whose records were all superseded only take disk space
+    private void deleteUnreferencedSegments() throws IOException {
+        Set<Segment> referenced = new HashSet<>();
+        for (Location location : index.values()) {
+            referenced.add(location.segment());
+        }
+        Iterator<Segment> iterator = segments.iterator();
+        while (iterator.hasNext()) {
+            Segment segment = iterator.next();
+            if (segment != active && !referenced.contains(segment)) {
+                iterator.remove();
+                retired.add(segment);
+                Files.deleteIfExists(segment.file());
+                LOG.info("Deleted superseded snapshot segment {}", segment.file());
+            }
+        }
+    }
+
+    // The mapping of a deleted file would otherwise hold its disk space and address space until the garbage
+    // collector happens to free the buffer
+    private void unmapRetired() {
+        for (Segment segment : retired) {
+            segment.unmap();
+        }
+        retired.clear();
+    }
+
+    // Reads only the revision field of a serialized PublishedPage, 0 when it has none
+    private static long revisionOf(ByteBuffer snapshot) {
+        CodedInputStream input = CodedInputStream.newInstance(snapshot);
+        try {
+            int tag;
+            while ((tag = input.readTag()) != 0) {
+                if (tag == REVISION_TAG) {
+                    return input.readInt64();
+                }
+                if (!input.skipField(tag)) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // Left to get, which drops the unreadable record
+        }
+        return 0;
+    }
+
+    private void roll(int size) {
+        try {
+            long next = segments.isEmpty() ? 0 : segments.get(segments.size() - 1).sequence() + 1;
+            Path file = Paths.get(directory, String.format("%s%010d%s", SEGMENT_PREFIX, next, SEGMENT_SUFFIX));
+            active = map(file, size);
+            segments.add(active);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create a page snapshot segment", e);
+        }
+    }
+
+    private static Segment map(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            String name = file.getFileName().toString();
+            long sequence = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            return new Segment(file, sequence, buffer);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (Segment segment : segments) {
+            segment.buffer().force();
+        }
+        unmapRetired();
+    }
+
+    private record Location(Segment segment, int offset, int length, long revision) {
+    }
+
+    private static final class Segment {
+
+        // Unsafe.invokeCleaner, the only way to unmap a MappedByteBuffer before it is garbage collected.
+        // Null when the JDK does not offer it, the buffers are then left to the garbage collector.
+        private static final Object UNSAFE;
+        private static final Method INVOKE_CLEANER;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            try {
+                Class<?> type = Class.forName("sun.misc.Unsafe");
+                Field field = type.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                unsafe = field.get(null);
+                invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                LOG.warn("Cannot unmap snapshot segments, deleted ones are released by the garbage collector", e);
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+        }
+
+        private final Path file;
+        private final long sequence;
+        private final MappedByteBuffer buffer;
+        private int position;
+
+        private Segment(Path file, long sequence, MappedByteBuffer buffer) {
+            this.file = file;
+            this.sequence = sequence;
+            this.buffer = buffer;
+        }
+
+        Path file() {
+            return file;
+        }
+
+        long sequence() {
+            return sequence;
+        }
+
+        MappedByteBuffer buffer() {
+            return buffer;
+        }
+
+        int position() {
+            return position;
+        }
+
+        void advance(int bytes) {
+            position += bytes;
+        }
+
+        // The buffer must not be read afterwards, a read of unmapped memory crashes the JVM
+        void unmap() {
+            if (INVOKE_CLEANER == null) {
+                return;
+            }
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } catch (ReflectiveOperationException e) {
+                LOG.warn("Failed to unmap snapshot segment {}", file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.templates;
+
+import com.example.repository.SectionLayout;
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One-off cleanup of sections created before templates were shared: every variant still equal to its default is
+// removed from the variants column and the section is pointed at the template version, so the copy is no longer
+// stored. Run on startup by SectionStorageMigration, after the legacy tables are copied.
+@Singleton
+@Requires(property = "sections.templates.deduplicate-on-startup", value = "true")
+public class SectionTemplateMigration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SectionTemplateMigration.class);
+
+    @Inject
+    private EntityManager entityManager;
+
+    @Inject
+    private SectionTemplates sectionTemplates;
+
+    public void deduplicate() {
+        for (SectionLayout layout : SectionLayout.ALL) {
+            List<String> variants = layout.variants();
+
+            // Keys of the variants equal to the template, as a text[] for the jsonb - operator
+            List<String> defaults = new ArrayList<>();
+            for (String variant : variants) {
+                defaults.add("CASE WHEN variants -> '" + variant + "' = CAST(:" + variant + " AS jsonb) THEN '" + variant + "' END");
+            }
+            String sql = "UPDATE page_section SET template_version = :version, " +
+                    "variants = variants - CAST(ARRAY_REMOVE(ARRAY[" + String.join(", ", defaults) + "], NULL) AS text[]) " +
+                    "WHERE section_type = :type AND template_version IS NULL";
+
+            Query query = entityManager.createNativeQuery(sql)
+                    .setParameter("version", SectionTemplates.CURRENT_VERSION)
+                    .setParameter("type", layout.type().name());
+            for (String variant : variants) {
+                query.setParameter(variant, sectionTemplates.getContent(layout.type(), variant));
+            }
+            int updated = query.executeUpdate();
+            LOG.info("Pointed {} {} sections at the shared templates", updated, layout.type());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.templates;
+
+import com.example.SectionType;
+import com.example.entity.SectionTemplate;
+import com.example.repository.SectionLayout;
+import com.example.repository.SectionTemplateRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Default section content, stored once in section_template and held once in memory.
+// A section keeps a variant out of its variants column and points at a template version until the user changes that variant.
+@Singleton
+public class SectionTemplates {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SectionTemplates.class);
+
+    // Bump together with a new templates/v<version> resource folder, rows keep resolving the version they were created with
+    public static final int CURRENT_VERSION = 1;
+
+    @Inject
+    private SectionTemplateRepository sectionTemplateRepository;
+
+    private final Map<TemplateKey, String> templates = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void load() {
+        // Store the bundled templates of the current version the first time a node runs it
+        Set<TemplateKey> stored = new HashSet<>();
+        for (SectionTemplate template : sectionTemplateRepository.findByVersion(CURRENT_VERSION)) {
+            stored.add(keyOf(template));
+        }
+        for (SectionLayout layout : SectionLayout.ALL) {
+            for (String variant : layout.variants()) {
+                TemplateKey key = new TemplateKey(layout.type().name(), variant, CURRENT_VERSION);
+                if (!stored.contains(key)) {
+                    insert(key, readBundled(layout.type(), variant));
+                }
+            }
+        }
+
+        for (SectionTemplate template : sectionTemplateRepository.findAll()) {
+            templates.put(keyOf(template), template.getContent());
+        }
+        LOG.info("Loaded {} section templates, current version {}", templates.size(), CURRENT_VERSION);
+    }
+
+    private void insert(TemplateKey key, String content) {
+        SectionTemplate template = new SectionTemplate();
+        template.setSectionType(key.sectionType());
+        template.setVariant(key.variant());
+        template.setVersion(key.version());
+        template.setContent(content);
+        try {
+            sectionTemplateRepository.save(template);
+        } catch (Exception e) {
+            // Another node inserted it concurrently, the unique constraint keeps a single copy
+            LOG.debug("Template {} already stored", key);
+        }
+    }
+
+    // Template content shipped with this build, also the source of the compression dictionary
+    public static String readBundled(SectionType type, String variant) {
+        String path = "templates/v" + CURRENT_VERSION + "/" + type.name().toLowerCase(Locale.ROOT) + "/" + variant + ".json";
+        try (InputStream in = SectionTemplates.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing section template " + path);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int getCurrentVersion() {
+        return CURRENT_VERSION;
+    }
+
+    // Template content of the current version
+    public String getContent(SectionType type, String variant) {
+        return resolve(type, variant, CURRENT_VERSION, null);
+    }
+
+    // The stored value when the user changed the variant, the shared template content otherwise
+    public String resolve(SectionType type, String variant, Integer version, String stored) {
+        if (stored != null) {
+            return stored;
+        }
+        if (version == null) {
+            return "";
+        }
+        TemplateKey key = new TemplateKey(type.name(), variant, version);
+        String content = templates.get(key);
+        if (content == null) {
+            // A newer version stored by another node after this one started
+            content = sectionTemplateRepository.findBySectionTypeAndVariantAndVersion(key.sectionType(), variant, version)
+                    .map(SectionTemplate::getContent)
+                    .orElse(null);
+            if (content == null) {
+                return "";
+            }
+            templates.put(key, content);
+        }
+        return content;
+    }
+
+    private static TemplateKey keyOf(SectionTemplate template) {
+        return new TemplateKey(template.getSectionType(), template.getVariant(), template.getVersion());
+    }
+
+    private record TemplateKey(String sectionType, String variant, int version) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.timing;
+
+import io.grpc.*;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.order.Ordered;
+import jakarta.inject.Singleton;
+
+// Opt-in timing breakdown: a call with the x-server-timing header gets the durations of its phases in the
+// server-timing trailer. Runs before the other interceptors so their phases are included.
+@Singleton
+public class ServerTimingInterceptor implements ServerInterceptor, Ordered {
+
+    static final Metadata.Key<String> REQUEST_HEADER = Metadata.Key.of("x-server-timing", Metadata.ASCII_STRING_MARSHALLER);
+    static final Metadata.Key<String> TRAILER = Metadata.Key.of("server-timing", Metadata.ASCII_STRING_MARSHALLER);
+
+    // Lets nodes exposed to untrusted clients ignore the header
+    @Value("${server-timing.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> serverCall, Metadata headers, ServerCallHandler<ReqT, RespT> serverCallHandler) {
+        if (!enabled || !headers.containsKey(REQUEST_HEADER)) {
+            return serverCallHandler.startCall(serverCall, headers);
+        }
+
+        ServerTiming timing = new ServerTiming();
+        ServerCall<ReqT, RespT> timedCall = new ForwardingServerCall.SimpleForwardingServerCall<>(serverCall) {
+            @Override
+            public void sendMessage(RespT message) {
+                // The response is serialized and compressed while it is sent
+                try (ServerTiming.Phase ignored = timing.phase("serialize")) {
+                    super.sendMessage(message);
+                }
+            }
+
+            @Override
+            public void close(Status status, Metadata trailers) {
+                trailers.put(TRAILER, timing.format());
+                super.close(status, trailers);
+            }
+        };
+
+        // Attached while the handler and every listener callback run, so ServerTiming.start finds it
+        Context context = Context.current().withValue(ServerTiming.KEY, timing);
+        return Contexts.interceptCall(context, timedCall, headers, serverCallHandler);
+    }
+
+    @Override
+    public int getOrder() {
+        return HIGHEST_PRECEDENCE;
+    }
+}
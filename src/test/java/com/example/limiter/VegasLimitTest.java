@@ -0,0 +1,129 @@
+package com.example.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Latencies are drawn from a seeded Random, each run sees the same samples
+class VegasLimitTest {
+
+    private static final long MILLIS = 1_000_000L;
+    private static final String METHOD = "PageService/GetPage";
+
+    private final Random random = new Random(42);
+
+    @Test
+    void rejectsCallsOverTheLimit() {
+        VegasLimit limit = new VegasLimit(2, 1, 10);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        limit.release();
+        assertTrue(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+    }
+
+    @Test
+    void droppedCallLowersTheLimit() {
+        VegasLimit limit = new VegasLimit(20, 4, 500);
+        limit.tryAcquire();
+
+        limit.releaseDropped();
+
+        assertEquals(18, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void callReleasedWithoutSampleLeavesTheLimit() {
+        VegasLimit limit = new VegasLimit(20, 4, 500);
+        hold(limit, 10);
+
+        for (int i = 0; i < 1000; i++) {
+            limit.release();
+            limit.tryAcquire();
+        }
+
+        assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    void limitStaysStableWithMixedFastAndSlowCallsAtConstantLoad() {
+        VegasLimit limit = new VegasLimit(20, 4, 500);
+        hold(limit, 10);
+
+        // One call in five misses the cache and takes ten times longer, the load itself never changes
+        int[] range = range(limit, 20_000, () -> {
+            limit.release(METHOD, jitter(random.nextInt(5) == 0 ? 10 * MILLIS : MILLIS));
+            limit.tryAcquire();
+        });
+
+        // Never below the ten calls the clients keep running
+        assertTrue(range[0] >= 12, "limit fell to " + range[0]);
+        assertTrue(range[1] <= 25, "limit rose to " + range[1]);
+    }
+
+    @Test
+    void methodsAreComparedWithTheirOwnLatency() {
+        VegasLimit limit = new VegasLimit(20, 4, 500);
+        hold(limit, 10);
+
+        // A cheap read and a publish twenty times slower, neither is queued
+        int[] range = range(limit, 20_000, () -> {
+            if (random.nextBoolean()) {
+                limit.release(METHOD, jitter(MILLIS));
+            } else {
+                limit.release("PageService/PublishPage", jitter(20 * MILLIS));
+            }
+            limit.tryAcquire();
+        });
+
+        assertTrue(range[0] >= 18, "limit fell to " + range[0]);
+    }
+
+    @Test
+    void limitSettlesNearCapacityWhenLatencyGrowsWithLoad() {
+        VegasLimit limit = new VegasLimit(20, 4, 500);
+        while (limit.tryAcquire()) {
+        }
+
+        // Thirty calls run at once, any more wait in a queue and take proportionally longer.
+        // Clients always have more calls to send than the limit lets in.
+        int[] range = range(limit, 50_000, () -> {
+            double queueing = Math.max(1.0, limit.getInFlight() / 30.0);
+            limit.release(METHOD, jitter((long) ((random.nextInt(5) == 0 ? 10 * MILLIS : MILLIS) * queueing)));
+            while (limit.tryAcquire()) {
+            }
+        });
+
+        assertTrue(range[0] >= 20, "limit fell to " + range[0]);
+        assertTrue(range[1] <= 60, "limit rose to " + range[1]);
+    }
+
+    private static void hold(VegasLimit limit, int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+    }
+
+    // Runs the step the given number of times and returns the lowest and highest limit seen
+    // once the first tenth of the samples has settled the latencies
+    private static int[] range(VegasLimit limit, int samples, Runnable step) {
+        int[] range = {Integer.MAX_VALUE, 0};
+        for (int i = 0; i < samples; i++) {
+            step.run();
+            if (i >= samples / 10) {
+                range[0] = Math.min(range[0], limit.getLimit());
+                range[1] = Math.max(range[1], limit.getLimit());
+            }
+        }
+        return range;
+    }
+
+    private long jitter(long latency) {
+        return latency + (long) (latency * 0.1 * random.nextGaussian());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.loadtest;
+
+import io.grpc.Status;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latencies per RPC in two histograms: from the time the call was scheduled to be sent, which is what a client
+// waiting in line sees and does not hide a stalled server (coordinated omission), and from the time it was
+// actually sent, the service time alone. The two drift apart once the server cannot keep up with the rate.
+class LatencyRecorder {
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    void record(String operation, long intendedNanos, long sentNanos, long completedNanos, Status.Code code) {
+        Stats operationStats = stats.computeIfAbsent(operation, name -> new Stats());
+        operationStats.responseTime.recordValue(completedNanos - intendedNanos);
+        operationStats.serviceTime.recordValue(completedNanos - sentNanos);
+        if (code != Status.Code.OK) {
+            operationStats.errors.computeIfAbsent(code, c -> new LongAdder()).increment();
+        }
+    }
+
+    long totalCount() {
+        return stats.values().stream().mapToLong(s -> s.responseTime.getTotalCount()).sum();
+    }
+
+    long totalErrors() {
+        return stats.values().stream().mapToLong(Stats::errorCount).sum();
+    }
+
+    void print(PrintStream out, long measuredNanos) {
+        double seconds = measuredNanos / 1e9;
+        out.printf("%-10s %8s %8s %9s %9s %9s %9s %9s %9s %12s%n",
+                "rpc", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms", "svc p99 ms");
+        for (Map.Entry<String, Stats> entry : new TreeMap<>(stats).entrySet()) {
+            Histogram response = entry.getValue().responseTime;
+            out.printf("%-10s %8d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %12.2f%n",
+                    entry.getKey(),
+                    response.getTotalCount(),
+                    entry.getValue().errorCount(),
+                    response.getTotalCount() / seconds,
+                    millis(response.getValueAtPercentile(50)),
+                    millis(response.getValueAtPercentile(95)),
+                    millis(response.getValueAtPercentile(99)),
+                    millis(response.getValueAtPercentile(99.9)),
+                    millis(response.getMaxValue()),
+                    millis(entry.getValue().serviceTime.getValueAtPercentile(99)));
+            if (!entry.getValue().errors.isEmpty()) {
+                out.printf("%-10s errors %s%n", "", new TreeMap<>(entry.getValue().errors));
+            }
+        }
+    }
+
+    // Full percentile distributions, in milliseconds, for plotting or comparing runs
+    void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(entry.getKey() + ".hgrm")))) {
+                entry.getValue().responseTime.outputPercentileDistribution(out, 1_000_000.0);
+            }
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static final class Stats {
+
+        // Auto-resizing, a stalled server must not make recording fail
+        private final Histogram responseTime = new ConcurrentHistogram(3);
+        private final Histogram serviceTime = new ConcurrentHistogram(3);
+        private final Map<Status.Code, LongAdder> errors = new ConcurrentHashMap<>();
+
+        long errorCount() {
+            return errors.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+    }
+}
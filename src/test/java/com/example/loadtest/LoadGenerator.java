@@ -0,0 +1,86 @@
+package com.example.loadtest;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.Status;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-loop load: calls are started on a fixed schedule whether or not earlier ones completed, and every latency
+// is measured from the scheduled start. A closed loop that waits for each response would send less while the
+// server stalls and under-report exactly the slow periods.
+class LoadGenerator {
+
+    private final Workload workload;
+    private final LatencyRecorder recorder;
+
+    LoadGenerator(Workload workload, LatencyRecorder recorder) {
+        this.workload = workload;
+        this.recorder = recorder;
+    }
+
+    // Returns the measured duration in nanoseconds, calls scheduled during the warmup are not recorded
+    long run(int ratePerSecond, Duration warmup, Duration duration) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        Phaser inFlight = new Phaser(1);
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = intended >= measureFrom;
+            Workload.Operation operation = workload.next();
+            long sent = System.nanoTime();
+
+            ListenableFuture<?> call;
+            try {
+                call = operation.call();
+            } catch (RuntimeException e) {
+                if (measured) {
+                    recorder.record(operation.name(), intended, sent, System.nanoTime(), Status.fromThrowable(e).getCode());
+                }
+                continue;
+            }
+            inFlight.register();
+            call.addListener(() -> {
+                if (measured) {
+                    recorder.record(operation.name(), intended, sent, System.nanoTime(), statusOf(call));
+                }
+                inFlight.arriveAndDeregister();
+            }, MoreExecutors.directExecutor());
+        }
+
+        // Calls still running at the end count with their full latency
+        try {
+            inFlight.awaitAdvanceInterruptibly(inFlight.arrive(), 1, TimeUnit.MINUTES);
+        } catch (TimeoutException e) {
+            System.out.println("Load test: calls still in flight after one minute, they are not recorded");
+        }
+        return end - measureFrom;
+    }
+
+    private static Status.Code statusOf(ListenableFuture<?> call) {
+        try {
+            Futures.getDone(call);
+            return Status.Code.OK;
+        } catch (ExecutionException e) {
+            return Status.fromThrowable(e.getCause()).getCode();
+        } catch (RuntimeException e) {
+            return Status.fromThrowable(e).getCode();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.loadtest;
+
+import io.grpc.Channel;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.grpc.annotation.GrpcChannel;
+import io.micronaut.grpc.server.GrpcServerChannel;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// End-to-end load run against the application started in this JVM, excluded from the regular test task.
+// Run it with ./gradlew loadTest, the loadtest.* settings of application-loadtest.yml can be overridden
+// with -Dloadtest.<name>=<value>, e.g. -Dloadtest.rate=500 -Dloadtest.mix=login:1,hero:10
+@Tag("load")
+@MicronautTest(environments = "loadtest", transactional = false)
+class LoadTest {
+
+    @Inject
+    @GrpcChannel(GrpcServerChannel.NAME)
+    ManagedChannel channel;
+
+    @Value("${loadtest.rate}")
+    int rate;
+
+    @Value("${loadtest.warmup}")
+    Duration warmup;
+
+    @Value("${loadtest.duration}")
+    Duration duration;
+
+    @Value("${loadtest.users}")
+    int users;
+
+    @Value("${loadtest.mix}")
+    String mix;
+
+    @Value("${loadtest.write-ratio}")
+    double writeRatio;
+
+    @Value("${loadtest.max-error-ratio}")
+    double maxErrorRatio;
+
+    @Value("${loadtest.server-timing}")
+    boolean serverTiming;
+
+    @Value("${loadtest.report-directory}")
+    String reportDirectory;
+
+    @Test
+    void mixedWorkload() throws Exception {
+        ServerTimingCollector serverTimingCollector = new ServerTimingCollector();
+        Channel workloadChannel = serverTiming ? ClientInterceptors.intercept(channel, serverTimingCollector) : channel;
+        Workload workload = new Workload(workloadChannel, parseMix(mix), writeRatio);
+        workload.setUp(users);
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        long measuredNanos = new LoadGenerator(workload, recorder).run(rate, warmup, duration);
+
+        System.out.printf("Load test: %d calls/s for %s after a %s warmup, %d users, mix %s%n", rate, duration, warmup, users, mix);
+        recorder.print(System.out, measuredNanos);
+        if (serverTiming) {
+            serverTimingCollector.print(System.out);
+        }
+        recorder.writeDistributions(Path.of(reportDirectory));
+
+        double errorRatio = recorder.totalErrors() / (double) Math.max(1, recorder.totalCount());
+        Assertions.assertTrue(errorRatio <= maxErrorRatio,
+                "Error ratio " + errorRatio + " is above the allowed " + maxErrorRatio);
+    }
+
+    // "login:5,hero:20" to operation weights
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(parts[0].trim(), parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+        }
+        return weights;
+    }
+}
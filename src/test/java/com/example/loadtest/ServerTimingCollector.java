@@ -0,0 +1,68 @@
+package com.example.loadtest;
+
+import io.grpc.*;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+// Asks the server for its timing breakdown on every call and sums the server-timing trailers per RPC and phase
+class ServerTimingCollector implements ClientInterceptor {
+
+    private static final Metadata.Key<String> REQUEST_HEADER = Metadata.Key.of("x-server-timing", Metadata.ASCII_STRING_MARSHALLER);
+    private static final Metadata.Key<String> TRAILER = Metadata.Key.of("server-timing", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final Map<String, Map<String, Phase>> phases = new ConcurrentHashMap<>();
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        String rpc = method.getBareMethodName();
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                headers.put(REQUEST_HEADER, "1");
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        String timing = trailers.get(TRAILER);
+                        if (timing != null) {
+                            record(rpc, timing);
+                        }
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    // "query;dur=1.250, build;dur=0.310"
+    private void record(String rpc, String timing) {
+        Map<String, Phase> rpcPhases = phases.computeIfAbsent(rpc, name -> new ConcurrentHashMap<>());
+        for (String entry : timing.split(",")) {
+            String[] parts = entry.trim().split(";dur=");
+            if (parts.length == 2) {
+                Phase phase = rpcPhases.computeIfAbsent(parts[0], name -> new Phase());
+                phase.millis.add(Double.parseDouble(parts[1]));
+                phase.count.increment();
+            }
+        }
+    }
+
+    void print(PrintStream out) {
+        out.println("Server timing, average ms per call that ran the phase:");
+        for (Map.Entry<String, Map<String, Phase>> rpc : new TreeMap<>(phases).entrySet()) {
+            StringBuilder line = new StringBuilder(String.format("%-22s", rpc.getKey()));
+            rpc.getValue().forEach((name, phase) ->
+                    line.append(String.format(" %s=%.3f", name, phase.millis.sum() / Math.max(1, phase.count.sum()))));
+            out.println(line);
+        }
+    }
+
+    private static final class Phase {
+        private final DoubleAdder millis = new DoubleAdder();
+        private final LongAdder count = new LongAdder();
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.loadtest;
+
+import com.example.*;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.grpc.Channel;
+import io.grpc.Metadata;
+import io.grpc.stub.AbstractStub;
+import io.grpc.stub.MetadataUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// The mix of login, register and section calls, picked at random by weight. Section calls are mostly fetches,
+// the rest change the active variant or a variant document of a random user created by setUp.
+class Workload {
+
+    static final String PASSWORD = "load-test-password";
+
+    record Operation(String name, Supplier<ListenableFuture<?>> call) {
+
+        ListenableFuture<?> call() {
+            return call.get();
+        }
+    }
+
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong registrations = new AtomicLong();
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<String> userNames = new ArrayList<>();
+    // The access token header of each user, the section services only answer calls that carry it
+    private final List<Metadata> userHeaders = new ArrayList<>();
+
+    private final UserLoginGrpc.UserLoginFutureStub login;
+    private final UserSignUpGrpc.UserSignUpFutureStub register;
+    private final HeroSectionServiceGrpc.HeroSectionServiceFutureStub hero;
+    private final NavSectionServiceGrpc.NavSectionServiceFutureStub nav;
+    private final SliderSectionServiceGrpc.SliderSectionServiceFutureStub slider;
+    private final ContactSectionServiceGrpc.ContactSectionServiceFutureStub contact;
+    private final DetailSectionServiceGrpc.DetailSectionServiceFutureStub detail;
+    private final FooterSectionServiceGrpc.FooterSectionServiceFutureStub footer;
+
+    private final double writeRatio;
+    private final List<Operation> operations = new ArrayList<>();
+    private final List<Integer> cumulativeWeights = new ArrayList<>();
+    private int totalWeight;
+
+    Workload(Channel channel, Map<String, Integer> mix, double writeRatio) {
+        this.login = UserLoginGrpc.newFutureStub(channel);
+        this.register = UserSignUpGrpc.newFutureStub(channel);
+        this.hero = HeroSectionServiceGrpc.newFutureStub(channel);
+        this.nav = NavSectionServiceGrpc.newFutureStub(channel);
+        this.slider = SliderSectionServiceGrpc.newFutureStub(channel);
+        this.contact = ContactSectionServiceGrpc.newFutureStub(channel);
+        this.detail = DetailSectionServiceGrpc.newFutureStub(channel);
+        this.footer = FooterSectionServiceGrpc.newFutureStub(channel);
+        this.writeRatio = writeRatio;
+
+        Map<String, Supplier<ListenableFuture<?>>> calls = new LinkedHashMap<>();
+        calls.put("login", this::login);
+        calls.put("register", this::register);
+        calls.put("hero", this::hero);
+        calls.put("nav", this::nav);
+        calls.put("slider", this::slider);
+        calls.put("contact", this::contact);
+        calls.put("detail", this::detail);
+        calls.put("footer", this::footer);
+        for (Map.Entry<String, Integer> weight : mix.entrySet()) {
+            Supplier<ListenableFuture<?>> call = calls.get(weight.getKey());
+            if (call == null) {
+                throw new IllegalArgumentException("Unknown operation " + weight.getKey() + ", expected one of " + calls.keySet());
+            }
+            if (weight.getValue() > 0) {
+                totalWeight += weight.getValue();
+                operations.add(new Operation(weight.getKey(), call));
+                cumulativeWeights.add(totalWeight);
+            }
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("The workload mix has no operation with a positive weight");
+        }
+    }
+
+    // Registers and logs in the users the section and login calls pick from
+    void setUp(int users) throws Exception {
+        for (int i = 0; i < users; i++) {
+            String userName = nextUserName();
+            register.register(UserRequest.newBuilder()
+                    .setUserName(userName)
+                    .setEmail(userName + "@loadtest.local")
+                    .setPassword(PASSWORD)
+                    .build()).get();
+            LoginReply reply = login.login(LoginRequest.newBuilder().setUserName(userName).setPassword(PASSWORD).build()).get();
+            userNames.add(userName);
+            userIds.add(reply.getUserId());
+            Metadata headers = new Metadata();
+            headers.put(Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER), "Bearer " + reply.getAccessToken());
+            userHeaders.add(headers);
+        }
+    }
+
+    Operation next() {
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (int i = 0; i < operations.size(); i++) {
+            if (pick < cumulativeWeights.get(i)) {
+                return operations.get(i);
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private ListenableFuture<?> login() {
+        String userName = userNames.get(ThreadLocalRandom.current().nextInt(userNames.size()));
+        return login.login(LoginRequest.newBuilder().setUserName(userName).setPassword(PASSWORD).build());
+    }
+
+    private ListenableFuture<?> register() {
+        String userName = nextUserName();
+        return register.register(UserRequest.newBuilder()
+                .setUserName(userName)
+                .setEmail(userName + "@loadtest.local")
+                .setPassword(PASSWORD)
+                .build());
+    }
+
+    private ListenableFuture<?> hero() {
+        int user = randomUser();
+        HeroSectionUpdateRequest.Builder request = HeroSectionUpdateRequest.newBuilder().setId(Long.toString(userIds.get(user)));
+        if (isWrite()) {
+            request.setActive(pick("Split", "Centered"));
+        }
+        return authorized(hero, user).updateHeroSection(request.build());
+    }
+
+    private ListenableFuture<?> nav() {
+        int user = randomUser();
+        NavRequest.Builder request = NavRequest.newBuilder().setId(Long.toString(userIds.get(user)));
+        if (isWrite()) {
+            request.setActive(pick("Basic", "Centered"));
+        }
+        return authorized(nav, user).updateNavSection(request.build());
+    }
+
+    private ListenableFuture<?> slider() {
+        int user = randomUser();
+        SliderRequest.Builder request = SliderRequest.newBuilder().setId(userIds.get(user));
+        if (isWrite()) {
+            request.setBasic(document());
+        }
+        return authorized(slider, user).updateSliderSection(request.build());
+    }
+
+    private ListenableFuture<?> contact() {
+        int user = randomUser();
+        ContactRequest.Builder request = ContactRequest.newBuilder().setId(userIds.get(user));
+        if (isWrite()) {
+            request.setActive(pick("Tile", "Centered"));
+        }
+        return authorized(contact, user).updateContactSection(request.build());
+    }
+
+    private ListenableFuture<?> detail() {
+        int user = randomUser();
+        DetailRequest.Builder request = DetailRequest.newBuilder().setId(userIds.get(user));
+        if (isWrite()) {
+            request.setTile(document());
+        }
+        return authorized(detail, user).updateDetailSection(request.build());
+    }
+
+    private ListenableFuture<?> footer() {
+        int user = randomUser();
+        FooterRequest.Builder request = FooterRequest.newBuilder().setId(userIds.get(user));
+        if (isWrite()) {
+            request.setActive(pick("Basic", "Centered"));
+        }
+        return authorized(footer, user).updateFooterSection(request.build());
+    }
+
+    private String nextUserName() {
+        return "loadtest-" + runId + "-" + registrations.incrementAndGet();
+    }
+
+    private int randomUser() {
+        return ThreadLocalRandom.current().nextInt(userIds.size());
+    }
+
+    private <S extends AbstractStub<S>> S authorized(S stub, int user) {
+        return stub.withInterceptors(MetadataUtils.newAttachHeadersInterceptor(userHeaders.get(user)));
+    }
+
+    private boolean isWrite() {
+        return ThreadLocalRandom.current().nextDouble() < writeRatio;
+    }
+
+    private static String pick(String first, String second) {
+        return ThreadLocalRandom.current().nextBoolean() ? first : second;
+    }
+
+    private static String document() {
+        return "{\"type\":\"div\",\"props\":{\"id\":\"load-" + ThreadLocalRandom.current().nextInt(1000) + "\"}}";
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.patch;
+
+import com.example.JsonPatchOperation;
+import com.example.exceptions.InvalidPatchException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Mostly the examples of RFC 6902 appendix A. Documents are compared as JSON trees, member order does not matter.
+class JsonPatchApplierTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonPatchApplier applier = new JsonPatchApplier();
+
+    @Test
+    void addsObjectMember() {
+        assertJson("{\"foo\":\"bar\",\"baz\":\"qux\"}",
+                applier.apply("{\"foo\":\"bar\"}", List.of(op("add", "/baz", "\"qux\""))));
+    }
+
+    @Test
+    void addsArrayElementBeforeIndex() {
+        assertJson("{\"foo\":[\"bar\",\"qux\",\"baz\"]}",
+                applier.apply("{\"foo\":[\"bar\",\"baz\"]}", List.of(op("add", "/foo/1", "\"qux\""))));
+    }
+
+    @Test
+    void addsArrayElementAtEnd() {
+        assertJson("{\"foo\":[1,2,3]}",
+                applier.apply("{\"foo\":[1,2]}", List.of(op("add", "/foo/-", "3"))));
+    }
+
+    @Test
+    void addReplacesExistingMember() {
+        assertJson("{\"foo\":2}", applier.apply("{\"foo\":1}", List.of(op("add", "/foo", "2"))));
+    }
+
+    @Test
+    void removesObjectMember() {
+        assertJson("{\"foo\":\"bar\"}",
+                applier.apply("{\"baz\":\"qux\",\"foo\":\"bar\"}", List.of(op("remove", "/baz", ""))));
+    }
+
+    @Test
+    void removesArrayElement() {
+        assertJson("{\"foo\":[\"bar\",\"baz\"]}",
+                applier.apply("{\"foo\":[\"bar\",\"qux\",\"baz\"]}", List.of(op("remove", "/foo/1", ""))));
+    }
+
+    @Test
+    void replacesValue() {
+        assertJson("{\"baz\":\"boo\",\"foo\":\"bar\"}",
+                applier.apply("{\"baz\":\"qux\",\"foo\":\"bar\"}", List.of(op("replace", "/baz", "\"boo\""))));
+    }
+
+    @Test
+    void replacesWholeDocument() {
+        assertJson("[1]", applier.apply("{\"foo\":1}", List.of(op("replace", "", "[1]"))));
+    }
+
+    @Test
+    void movesValue() {
+        String document = "{\"foo\":{\"bar\":\"baz\",\"waldo\":\"fred\"},\"qux\":{\"corge\":\"grault\"}}";
+        assertJson("{\"foo\":{\"bar\":\"baz\"},\"qux\":{\"corge\":\"grault\",\"thud\":\"fred\"}}",
+                applier.apply(document, List.of(from("move", "/foo/waldo", "/qux/thud"))));
+    }
+
+    @Test
+    void movesArrayElement() {
+        assertJson("{\"foo\":[\"all\",\"cows\",\"eat\",\"grass\"]}",
+                applier.apply("{\"foo\":[\"all\",\"grass\",\"cows\",\"eat\"]}", List.of(from("move", "/foo/1", "/foo/3"))));
+    }
+
+    @Test
+    void copiesValueWithoutSharingIt() {
+        assertJson("{\"a\":{\"x\":1},\"b\":{\"x\":2}}",
+                applier.apply("{\"a\":{\"x\":1}}", List.of(from("copy", "/a", "/b"), op("replace", "/b/x", "2"))));
+    }
+
+    @Test
+    void passingTestLeavesDocumentUnchanged() {
+        assertJson("{\"baz\":\"qux\",\"foo\":[\"a\",2,\"c\"]}",
+                applier.apply("{\"baz\":\"qux\",\"foo\":[\"a\",2,\"c\"]}",
+                        List.of(op("test", "/baz", "\"qux\""), op("test", "/foo/1", "2"))));
+    }
+
+    @Test
+    void unescapesPointerTokens() {
+        assertJson("{\"a/b\":1,\"m~n\":2}",
+                applier.apply("{\"a/b\":0,\"m~n\":0}", List.of(op("replace", "/a~1b", "1"), op("replace", "/m~0n", "2"))));
+    }
+
+    @Test
+    void appliesOperationsInOrder() {
+        assertJson("{\"props\":{\"color\":\"blue\"}}",
+                applier.apply("", List.of(op("add", "/props", "{}"), op("add", "/props/color", "\"red\""),
+                        op("replace", "/props/color", "\"blue\""))));
+    }
+
+    @Test
+    void rejectsFailedTest() {
+        assertThrows(InvalidPatchException.class,
+                () -> applier.apply("{\"baz\":\"qux\"}", List.of(op("test", "/baz", "\"bar\""))));
+    }
+
+    @Test
+    void rejectsAddToMissingParent() {
+        assertThrows(InvalidPatchException.class,
+                () -> applier.apply("{\"foo\":\"bar\"}", List.of(op("add", "/baz/bat", "\"qux\""))));
+    }
+
+    @Test
+    void rejectsRemoveOfMissingMember() {
+        assertThrows(InvalidPatchException.class,
+                () -> applier.apply("{\"foo\":\"bar\"}", List.of(op("remove", "/baz", ""))));
+    }
+
+    @Test
+    void rejectsReplaceOfMissingMember() {
+        assertThrows(InvalidPatchException.class,
+                () -> applier.apply("{\"foo\":\"bar\"}", List.of(op("replace", "/baz", "1"))));
+    }
+
+    @Test
+    void rejectsArrayIndexOutOfBounds() {
+        assertThrows(InvalidPatchException.class,
+                () -> applier.apply("{\"foo\":[1,2]}", List.of(op("add", "/foo/3", "3"))));
+    }
+
+    @Test
+    void rejectsInvalidArrayIndex() {
+        assertThrows(InvalidPatchException.class,
+                () -> applier.apply("{\"foo\":[1,2]}", List.of(op("remove", "/foo/first", ""))));
+    }
+
+    @Test
+    void rejectsPointerWithoutLeadingSlash() {
+        assertThrows(InvalidPatchException.class,
+                () -> applier.apply("{\"foo\":1}", List.of(op("remove", "foo", ""))));
+    }
+
+    @Test
+    void rejectsInvalidValue() {
+        assertThrows(InvalidPatchException.class,
+                () -> applier.apply("{\"foo\":1}", List.of(op("add", "/bar", "{not json"))));
+    }
+
+    @Test
+    void rejectsMissingValue() {
+        assertThrows(InvalidPatchException.class,
+                () -> applier.apply("{\"foo\":1}", List.of(op("add", "/bar", ""))));
+    }
+
+    @Test
+    void rejectsUnknownOperation() {
+        assertThrows(InvalidPatchException.class,
+                () -> applier.apply("{\"foo\":1}", List.of(op("merge", "/foo", "2"))));
+    }
+
+    @Test
+    void rejectsRemovalOfWholeDocument() {
+        assertThrows(InvalidPatchException.class,
+                () -> applier.apply("{\"foo\":1}", List.of(op("remove", "", ""))));
+    }
+
+    private void assertJson(String expected, String actual) {
+        try {
+            assertEquals(objectMapper.readTree(expected), objectMapper.readTree(actual));
+        } catch (IOException e) {
+            throw new AssertionError("Not a JSON document: " + actual, e);
+        }
+    }
+
+    private static JsonPatchOperation op(String op, String path, String value) {
+        return JsonPatchOperation.newBuilder().setOp(op).setPath(path).setValue(value).build();
+    }
+
+    private static JsonPatchOperation from(String op, String from, String path) {
+        return JsonPatchOperation.newBuilder().setOp(op).setFrom(from).setPath(path).build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.repository;
+
+import com.example.SectionType;
+import com.example.entity.Section;
+import com.example.entity.UserEntity;
+import io.micronaut.test.annotation.TransactionMode;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Every test runs in a rolled back transaction, together with the user created for it
+@MicronautTest(transactionMode = TransactionMode.SINGLE_TRANSACTION)
+class SectionUpsertRepositoryTest {
+
+    @Inject
+    SectionUpsertRepository sectionUpsertRepository;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    EntityManager entityManager;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        UserEntity user = new UserEntity();
+        user.setUserName("upsert-test-" + System.nanoTime());
+        user.setEmail("upsert-test@example.com");
+        user.setPassword("unused");
+        userId = userRepository.save(user).getUserId();
+    }
+
+    @Test
+    void insertsDefaultSection() {
+        Section section = upsert("", "{}", -1).orElseThrow();
+
+        assertEquals("Split", section.getActive());
+        assertEquals(0, section.getVersion());
+        assertEquals(Map.of(), SectionVariants.fromJson(section.getVariants()));
+    }
+
+    @Test
+    void insertsRequestedValues() {
+        Section section = upsert("Centered", "{\"split\":{\"a\":1}}", -1).orElseThrow();
+
+        assertEquals("Centered", section.getActive());
+        assertEquals(Map.of("split", "{\"a\":1}"), SectionVariants.fromJson(section.getVariants()));
+    }
+
+    @Test
+    void mergesChangedFieldsAndIncrementsVersion() {
+        upsert("", "{\"split\":{\"a\":1}}", -1).orElseThrow();
+        Section section = upsert("Centered", "{\"centered\":{\"b\":2}}", -1).orElseThrow();
+
+        assertEquals("Centered", section.getActive());
+        assertEquals(1, section.getVersion());
+        assertEquals(Map.of("split", "{\"a\":1}", "centered", "{\"b\":2}"), SectionVariants.fromJson(section.getVariants()));
+    }
+
+    @Test
+    void writesNothingWhenValuesAreStored() {
+        upsert("Centered", "{\"split\":{\"a\":1}}", -1).orElseThrow();
+
+        assertTrue(upsert("Centered", "{\"split\":{\"a\":1}}", -1).isEmpty());
+        assertTrue(upsert("", "{}", -1).isEmpty());
+    }
+
+    @Test
+    void writesOnlyOnExpectedVersion() {
+        upsert("", "{}", -1).orElseThrow();
+        upsert("Centered", "{}", 0).orElseThrow();
+
+        // Version 0 was already changed by the write above
+        assertTrue(upsert("Split", "{}", 0).isEmpty());
+        Section section = upsert("Split", "{}", 1).orElseThrow();
+        assertEquals("Split", section.getActive());
+        assertEquals(2, section.getVersion());
+    }
+
+    @Test
+    void writesNothingForUnknownUser() {
+        userId = -1L;
+
+        assertTrue(upsert("Centered", "{}", -1).isEmpty());
+    }
+
+    // The persistence context is cleared first, the statement returns the row it wrote and not a managed copy
+    private Optional<Section> upsert(String active, String variants, long expectedVersion) {
+        entityManager.clear();
+        return sectionUpsertRepository.upsert(SectionType.HERO, userId,
+                new SectionUpsertRepository.SectionValues(active, variants, expectedVersion, 1, "Split"));
+    }
+}
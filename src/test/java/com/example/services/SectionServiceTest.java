@@ -0,0 +1,157 @@
+package com.example.services;
+
+import com.example.HeroSectionResponse;
+import com.example.JsonPatchOperation;
+import com.example.SectionPatch;
+import com.example.SectionType;
+import com.example.entity.Section;
+import com.example.entity.SectionId;
+import com.example.entity.UserEntity;
+import com.example.repository.SectionRepository;
+import com.example.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Every service call commits its own transaction, as it does for an RPC. Each test works on a new user.
+@MicronautTest(transactional = false)
+class SectionServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Inject
+    SectionService sectionService;
+
+    @Inject
+    SectionRepository sectionRepository;
+
+    @Inject
+    UserRepository userRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        UserEntity user = new UserEntity();
+        user.setUserName("section-test-" + System.nanoTime());
+        user.setEmail("section-test@example.com");
+        user.setPassword("unused");
+        userId = userRepository.save(user).getUserId();
+    }
+
+    @Test
+    void appliesActiveTogetherWithPatches() throws Exception {
+        // The section exists, so the request takes the patch path rather than the upsert
+        update(new SectionUpdate("Split", Map.of(), List.of(), null)).response();
+
+        HeroSectionResponse response = update(new SectionUpdate("Centered", Map.of(),
+                List.of(patch("split", "add", "/patched", "true")), null)).response();
+
+        assertEquals("Centered", response.getActive());
+        assertTrue(objectMapper.readTree(response.getSplit()).path("patched").asBoolean());
+        assertEquals("Centered", stored().getActive());
+    }
+
+    @Test
+    void patchesApplyOnTopOfVariantSetBySameRequest() throws Exception {
+        HeroSectionResponse response = update(new SectionUpdate("", Map.of("split", "{\"title\":\"Hello\"}"),
+                List.of(patch("split", "add", "/subtitle", "\"World\"")), null)).response();
+
+        assertEquals(objectMapper.readTree("{\"title\":\"Hello\",\"subtitle\":\"World\"}"), objectMapper.readTree(response.getSplit()));
+    }
+
+    @Test
+    void failedPatchLeavesPlainFieldsUnchanged() {
+        Status status = update(new SectionUpdate("Centered", Map.of(),
+                List.of(patch("split", "remove", "/missing", "")), null)).status();
+
+        assertEquals(Status.Code.INVALID_ARGUMENT, status.getCode());
+        assertEquals("Split", stored().getActive());
+    }
+
+    @Test
+    void rejectsPatchOnStaleVersion() {
+        long first = update(new SectionUpdate("Centered", Map.of(), List.of(), null)).response().getVersion();
+        long second = update(new SectionUpdate("Split", Map.of(), List.of(), null)).response().getVersion();
+        assertEquals(first + 1, second);
+
+        Status status = update(new SectionUpdate("Centered", Map.of(),
+                List.of(patch("split", "add", "/patched", "true")), first)).status();
+
+        assertEquals(Status.Code.ABORTED, status.getCode());
+        assertEquals("Split", stored().getActive());
+    }
+
+    @Test
+    void rejectsInvalidVariant() {
+        Status status = update(new SectionUpdate("", Map.of("split", "{not json"), List.of(), null)).status();
+
+        assertEquals(Status.Code.INVALID_ARGUMENT, status.getCode());
+    }
+
+    @Test
+    void unknownUserIsNotFound() {
+        userId = -1L;
+
+        assertEquals(Status.Code.NOT_FOUND, update(new SectionUpdate("Centered", Map.of(), List.of(), null)).status().getCode());
+    }
+
+    private Result update(SectionUpdate update) {
+        Result result = new Result();
+        sectionService.update(SectionType.HERO, userId, update, result);
+        assertTrue(result.completed || result.error != null, "The service did not answer");
+        return result;
+    }
+
+    private Section stored() {
+        return sectionRepository.findById(new SectionId(userId, SectionType.HERO)).orElseThrow();
+    }
+
+    private static SectionPatch patch(String variant, String op, String path, String value) {
+        return SectionPatch.newBuilder()
+                .setVariant(variant)
+                .addOperations(JsonPatchOperation.newBuilder().setOp(op).setPath(path).setValue(value))
+                .build();
+    }
+
+    // Changes are answered before update returns, only fetches complete asynchronously
+    private static final class Result implements StreamObserver<HeroSectionResponse> {
+
+        private HeroSectionResponse value;
+        private Throwable error;
+        private boolean completed;
+
+        @Override
+        public void onNext(HeroSectionResponse value) {
+            this.value = value;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            this.error = t;
+        }
+
+        @Override
+        public void onCompleted() {
+            this.completed = true;
+        }
+
+        HeroSectionResponse response() {
+            assertNull(error, () -> "Failed with " + Status.fromThrowable(error));
+            return value;
+        }
+
+        Status status() {
+            return error == null ? Status.OK : Status.fromThrowable(error);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.services;
+
+import com.example.HeroSectionResponse;
+import com.example.SectionType;
+import com.example.cache.SectionCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectionWriteBehindBufferTest {
+
+    private static final Long USER_ID = 1L;
+
+    private final SectionCache sectionCache = new SectionCache(100, Duration.ofMinutes(5));
+    private final SectionWriteBehindBuffer buffer = new SectionWriteBehindBuffer();
+    private final List<SectionUpdate> written = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        set("enabled", true);
+        set("maxPending", 100);
+        set("sectionCache", sectionCache);
+    }
+
+    @Test
+    void mergesChangesToTheSameSection() {
+        assertTrue(buffer.offer(USER_ID, SectionType.HERO, update("Split", Map.of("split", "{\"a\":1}")), written::add));
+        assertTrue(buffer.offer(USER_ID, SectionType.HERO, update("", Map.of("centered", "{\"b\":2}")), written::add));
+        assertTrue(buffer.offer(USER_ID, SectionType.HERO, update("Centered", Map.of("split", "{\"a\":3}")), written::add));
+        assertEquals(1, buffer.getPendingCount());
+
+        buffer.flushAll();
+
+        assertEquals(List.of(update("Centered", Map.of("split", "{\"a\":3}", "centered", "{\"b\":2}"))), written);
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    @Test
+    void keepsSectionsApart() {
+        buffer.offer(USER_ID, SectionType.HERO, update("Split", Map.of()), written::add);
+        buffer.offer(USER_ID, SectionType.NAV, update("Basic", Map.of()), written::add);
+        buffer.offer(2L, SectionType.HERO, update("Centered", Map.of()), written::add);
+
+        buffer.flush(USER_ID, SectionType.HERO);
+
+        assertEquals(List.of(update("Split", Map.of())), written);
+        assertEquals(2, buffer.getPendingCount());
+    }
+
+    @Test
+    void newerChangeIsWrittenAfterOlderOneTakenFromTheBuffer() throws Exception {
+        CountDownLatch olderWriting = new CountDownLatch(1);
+        CountDownLatch releaseOlder = new CountDownLatch(1);
+        buffer.offer(USER_ID, SectionType.HERO, update("Split", Map.of()), older -> {
+            olderWriting.countDown();
+            await(releaseOlder);
+            written.add(older);
+        });
+        Thread flusher = new Thread(buffer::flushAll);
+        flusher.start();
+        assertTrue(olderWriting.await(5, TimeUnit.SECONDS));
+
+        // Buffered while the older change is still being written, then flushed by a change that cannot be buffered
+        buffer.offer(USER_ID, SectionType.HERO, update("Centered", Map.of()), written::add);
+        Thread request = new Thread(() -> buffer.flush(USER_ID, SectionType.HERO));
+        request.start();
+        request.join(200);
+        assertTrue(written.isEmpty());
+
+        releaseOlder.countDown();
+        flusher.join(5000);
+        request.join(5000);
+        assertEquals(List.of(update("Split", Map.of()), update("Centered", Map.of())), written);
+    }
+
+    @Test
+    void failedWriteEvictsTheAcknowledgedState() {
+        sectionCache.put(USER_ID, SectionType.HERO, HeroSectionResponse.newBuilder().setActive("Centered").build());
+        buffer.offer(USER_ID, SectionType.HERO, update("Centered", Map.of()), ignored -> {
+            throw new IllegalStateException("database down");
+        });
+        buffer.offer(USER_ID, SectionType.NAV, update("Basic", Map.of()), written::add);
+
+        buffer.flushAll();
+
+        assertNull(sectionCache.get(USER_ID, SectionType.HERO, HeroSectionResponse.class));
+        assertEquals(List.of(update("Basic", Map.of())), written);
+    }
+
+    @Test
+    void shutdownWritesEverythingStillBuffered() {
+        buffer.offer(USER_ID, SectionType.HERO, update("Split", Map.of()), written::add);
+        buffer.offer(USER_ID, SectionType.NAV, update("Basic", Map.of()), written::add);
+
+        buffer.onShutdown(null);
+
+        assertEquals(2, written.size());
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    @Test
+    void fullBufferRefusesNewSections() {
+        set("maxPending", 1);
+        assertTrue(buffer.offer(USER_ID, SectionType.HERO, update("Split", Map.of()), written::add));
+        assertFalse(buffer.offer(USER_ID, SectionType.NAV, update("Basic", Map.of()), written::add));
+        // A section already buffered still merges
+        assertTrue(buffer.offer(USER_ID, SectionType.HERO, update("Centered", Map.of()), written::add));
+    }
+
+    @Test
+    void disabledBufferRefusesEverything() {
+        set("enabled", false);
+        assertFalse(buffer.offer(USER_ID, SectionType.HERO, update("Split", Map.of()), written::add));
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    private static SectionUpdate update(String active, Map<String, String> variants) {
+        return new SectionUpdate(active, variants, List.of(), null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Sets a private @Inject or @Value field the way the bean context would
+    private void set(String fieldName, Object value) {
+        try {
+            Field field = SectionWriteBehindBuffer.class.getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(buffer, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + fieldName, e);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.snapshots;
+
+import com.example.PublishedPage;
+import com.example.PublishedSection;
+import com.example.SectionType;
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The store is reopened on the same directory to stand in for a restart of the node
+class PageSnapshotStoreTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+    // length, crc32 and user id in front of every record
+    private static final int HEADER_SIZE = 16;
+
+    @TempDir
+    Path directory;
+
+    private final List<PageSnapshotStore> stores = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        stores.forEach(PageSnapshotStore::close);
+    }
+
+    @Test
+    void readsAppendedSnapshot() {
+        PageSnapshotStore store = open();
+        store.append(1L, page(1L, 1).toByteArray());
+
+        assertEquals(page(1L, 1), store.get(1L).orElseThrow());
+        assertTrue(store.get(2L).isEmpty());
+    }
+
+    @Test
+    void recoversSnapshotsAfterRestart() {
+        PageSnapshotStore store = open();
+        store.append(1L, page(1L, 1).toByteArray());
+        store.append(2L, page(2L, 1).toByteArray());
+        store.append(1L, page(1L, 2).toByteArray());
+        store.close();
+
+        PageSnapshotStore reopened = open();
+
+        assertEquals(2, reopened.size());
+        assertEquals(page(1L, 2), reopened.get(1L).orElseThrow());
+        assertEquals(page(2L, 1), reopened.get(2L).orElseThrow());
+    }
+
+    @Test
+    void recoversSnapshotsSpreadOverSegments() {
+        PageSnapshotStore store = open();
+        for (long userId = 1; userId <= 100; userId++) {
+            store.append(userId, page(userId, 1).toByteArray());
+        }
+        store.close();
+        assertTrue(segmentCount() > 1);
+
+        PageSnapshotStore reopened = open();
+
+        assertEquals(100, reopened.size());
+        for (long userId = 1; userId <= 100; userId++) {
+            assertEquals(page(userId, 1), reopened.get(userId).orElseThrow());
+        }
+    }
+
+    @Test
+    void ignoresRecordCutShortByCrash() throws IOException {
+        PageSnapshotStore store = open();
+        byte[] first = page(1L, 1).toByteArray();
+        store.append(1L, first);
+        store.append(1L, page(1L, 2).toByteArray());
+        store.close();
+        // A byte of the second record that never made it to disk
+        corrupt(HEADER_SIZE + first.length + HEADER_SIZE);
+
+        PageSnapshotStore reopened = open();
+
+        assertEquals(page(1L, 1), reopened.get(1L).orElseThrow());
+    }
+
+    @Test
+    void keepsLaterRevision() {
+        PageSnapshotStore store = open();
+        store.append(1L, page(1L, 2).toByteArray());
+        store.append(1L, page(1L, 1).toByteArray());
+
+        assertEquals(2, store.get(1L).orElseThrow().getRevision());
+    }
+
+    @Test
+    void skipsLoadedSnapshotAfterEviction() {
+        PageSnapshotStore store = open();
+        long generation = store.generation();
+        store.evict(2L);
+
+        assertFalse(store.appendLoaded(1L, page(1L, 1).toByteArray(), generation));
+        assertTrue(store.get(1L).isEmpty());
+        assertTrue(store.appendLoaded(1L, page(1L, 1).toByteArray(), store.generation()));
+        assertTrue(store.get(1L).isPresent());
+    }
+
+    @Test
+    void evictsOutdatedSnapshots() {
+        PageSnapshotStore store = open();
+        store.append(1L, page(1L, 1).toByteArray());
+        store.append(2L, page(2L, 3).toByteArray());
+        store.append(3L, page(3L, 1).toByteArray());
+
+        // User 1 was published again elsewhere, user 3 is gone
+        assertEquals(2, store.evictOutdated(Map.of(1L, 2L, 2L, 3L)));
+
+        assertTrue(store.get(1L).isEmpty());
+        assertTrue(store.get(2L).isPresent());
+        assertTrue(store.get(3L).isEmpty());
+    }
+
+    @Test
+    void compactionKeepsLatestSnapshotsAndFreesSegments() {
+        PageSnapshotStore store = open();
+        // The only live record of the first segment once the others are superseded, it is copied
+        store.append(6L, page(6L, 1).toByteArray());
+        for (int revision = 1; revision <= 20; revision++) {
+            for (long userId = 1; userId <= 5; userId++) {
+                store.append(userId, page(userId, revision).toByteArray());
+            }
+        }
+        long before = segmentCount();
+
+        store.compact();
+
+        assertTrue(segmentCount() < before);
+        for (long userId = 1; userId <= 5; userId++) {
+            assertEquals(page(userId, 20), store.get(userId).orElseThrow());
+        }
+        assertEquals(page(6L, 1), store.get(6L).orElseThrow());
+        store.close();
+
+        PageSnapshotStore reopened = open();
+        assertEquals(6, reopened.size());
+        assertEquals(page(6L, 1), reopened.get(6L).orElseThrow());
+        for (long userId = 1; userId <= 5; userId++) {
+            assertEquals(page(userId, 20), reopened.get(userId).orElseThrow());
+        }
+    }
+
+    private PageSnapshotStore open() {
+        PageSnapshotStore store = new PageSnapshotStore();
+        set(store, "directory", directory.toString());
+        set(store, "segmentSize", SEGMENT_SIZE);
+        store.open();
+        stores.add(store);
+        return store;
+    }
+
+    private static PublishedPage page(long userId, int revision) {
+        return PublishedPage.newBuilder()
+                .setUserId(userId)
+                .setRevision(revision)
+                .setPublishedAt(1_700_000_000_000L + revision)
+                .addSections(PublishedSection.newBuilder()
+                        .setType(SectionType.HERO)
+                        .setActive("Split")
+                        .setContent(ByteString.copyFromUtf8("{\"title\":\"Page " + userId + " revision " + revision + "\"}")))
+                .build();
+    }
+
+    private long segmentCount() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Flips a byte of the first segment
+    private void corrupt(int offset) throws IOException {
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.sorted().findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(1);
+            channel.read(value, offset);
+            value.put(0, (byte) (value.get(0) ^ 0xFF));
+            value.rewind();
+            channel.write(value, offset);
+        }
+    }
+
+    // Sets a private @Value field the way the bean context would
+    private static void set(PageSnapshotStore store, String fieldName, Object value) {
+        try {
+            Field field = PageSnapshotStore.class.getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(store, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + fieldName, e);
+        }
+    }
+}